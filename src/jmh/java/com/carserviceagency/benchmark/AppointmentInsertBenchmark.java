@@ -0,0 +1,108 @@
+package com.carserviceagency.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.payload.requests.AppointmentRequest;
+import com.carserviceagency.payload.response.BatchBookingResponse;
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.repository.ServiceOperatorRepo;
+import com.carserviceagency.service.AppointmentService;
+
+/**
+ * Insert throughput, reported per appointment: a bulk import through the
+ * repository in one transaction, and the batch booking endpoint's service
+ * method. Both depend on whether Hibernate can batch the inserts, which the
+ * appointment ID generator decides.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentInsertBenchmark {
+
+	private static final int IMPORT_SIZE = 96;
+
+	private static final int BOOKING_BATCH_SIZE = 48;
+
+	private BenchmarkEnvironment environment;
+
+	private AppointmentService appointmentService;
+
+	private AppointmentRepo appointmentRepo;
+
+	private TransactionTemplate transactionTemplate;
+
+	private ServiceOperator operator;
+
+	private int nextDay;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.environment = BenchmarkEnvironment.start(Map.of());
+		this.environment.seed(1, 0, 0, 1);
+		this.appointmentService = this.environment.bean(AppointmentService.class);
+		this.appointmentRepo = this.environment.bean(AppointmentRepo.class);
+		this.transactionTemplate = this.environment.bean(TransactionTemplate.class);
+		this.operator = this.environment.bean(ServiceOperatorRepo.class)
+				.findByOperatorId(this.environment.getOperatorIds().get(0));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.environment.close();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(IMPORT_SIZE)
+	public List<Appointment> bulkImport() {
+		List<Appointment> appointments = new ArrayList<>(IMPORT_SIZE);
+		for (int i = 0; i < IMPORT_SIZE; i++) {
+			LocalDate date = nextDate(i);
+			LocalTime startTime = LocalTime.of(i % 24, 0);
+			appointments.add(new Appointment(null, "Customer", date, startTime, startTime.plusHours(1), this.operator,
+					null));
+		}
+		this.nextDay += IMPORT_SIZE / 24;
+		return this.transactionTemplate.execute(status -> this.appointmentRepo.saveAll(appointments));
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BOOKING_BATCH_SIZE)
+	public BatchBookingResponse batchBooking() {
+		List<AppointmentRequest> requests = new ArrayList<>(BOOKING_BATCH_SIZE);
+		for (int i = 0; i < BOOKING_BATCH_SIZE; i++) {
+			requests.add(new AppointmentRequest(null, "Customer", nextDate(i), LocalTime.of(i % 24, 0),
+					this.operator.getOperatorId()));
+		}
+		this.nextDay += BOOKING_BATCH_SIZE / 24;
+		return this.appointmentService.scheduleAppointments(requests);
+	}
+
+	private LocalDate nextDate(int i) {
+		return BenchmarkEnvironment.FIRST_DAY.plusDays(this.nextDay + i / 24);
+	}
+}
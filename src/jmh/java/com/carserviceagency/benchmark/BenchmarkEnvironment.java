@@ -0,0 +1,161 @@
+package com.carserviceagency.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.carserviceagency.CarServiceAgencyApplication;
+import com.carserviceagency.payload.requests.AppointmentRequest;
+import com.carserviceagency.payload.requests.ServiceOperatorRequest;
+import com.carserviceagency.service.AppointmentService;
+import com.carserviceagency.service.ServiceOperatorService;
+
+import redis.embedded.RedisServer;
+
+/**
+ * The application running offline for benchmarks: an embedded Redis on a free
+ * port and an in-memory H2 database in MySQL mode, seeded with a fixed
+ * booking history so runs are comparable between releases.
+ */
+public final class BenchmarkEnvironment implements AutoCloseable {
+
+	public static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+	private final RedisServer redisServer;
+
+	private final LatencyProxy redisProxy;
+
+	private final ConfigurableApplicationContext context;
+
+	private final List<String> operatorIds = new ArrayList<>();
+
+	private BenchmarkEnvironment(RedisServer redisServer, LatencyProxy redisProxy,
+			ConfigurableApplicationContext context) {
+		this.redisServer = redisServer;
+		this.redisProxy = redisProxy;
+		this.context = context;
+	}
+
+	/**
+	 * Start Redis and the application context without a web server.
+	 *
+	 * @param properties Extra application properties for this benchmark.
+	 */
+	public static BenchmarkEnvironment start(Map<String, Object> properties) {
+		return start(properties, WebApplicationType.NONE, Duration.ZERO);
+	}
+
+	/**
+	 * Start Redis and the application context.
+	 *
+	 * @param properties   Extra application properties for this benchmark.
+	 * @param webType      {@link WebApplicationType#SERVLET} to serve HTTP on a
+	 *                     free port.
+	 * @param redisLatency Delay added to Redis traffic in each direction, to
+	 *                     make the application wait on it like on a remote
+	 *                     server.
+	 */
+	public static BenchmarkEnvironment start(Map<String, Object> properties, WebApplicationType webType,
+			Duration redisLatency) {
+		int redisPort = freePort();
+		RedisServer redisServer;
+		try {
+			redisServer = new RedisServer(redisPort);
+			redisServer.start();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		LatencyProxy redisProxy = redisLatency.isZero() ? null : new LatencyProxy(redisPort, redisLatency);
+		Map<String, Object> overrides = new LinkedHashMap<>();
+		overrides.put("spring.datasource.url", "jdbc:h2:mem:benchmark-" + redisPort + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+		overrides.put("spring.datasource.driver-class-name", "org.h2.Driver");
+		overrides.put("spring.datasource.username", "sa");
+		overrides.put("spring.datasource.password", "");
+		overrides.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+		overrides.put("spring.data.redis.port", redisProxy == null ? redisPort : redisProxy.getPort());
+		overrides.put("server.port", 0);
+		overrides.put("logging.level.root", "WARN");
+		overrides.putAll(properties);
+		// Passed as command line arguments so they win over application.properties
+		String[] args = overrides.entrySet().stream()
+				.map(e -> "--" + e.getKey() + "=" + e.getValue())
+				.toArray(String[]::new);
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(CarServiceAgencyApplication.class)
+				.web(webType)
+				.run(args);
+		return new BenchmarkEnvironment(redisServer, redisProxy, context);
+	}
+
+	public <T> T bean(Class<T> type) {
+		return this.context.getBean(type);
+	}
+
+	/**
+	 * @return the HTTP port, when started with a web server.
+	 */
+	public int getPort() {
+		return this.context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+	}
+
+	public List<String> getOperatorIds() {
+		return this.operatorIds;
+	}
+
+	/**
+	 * Create operators and give each one an hourly booking history, spread over
+	 * a number of customers.
+	 */
+	public void seed(int operators, int days, int bookingsPerDay, int customers) {
+		ServiceOperatorService serviceOperatorService = bean(ServiceOperatorService.class);
+		AppointmentService appointmentService = bean(AppointmentService.class);
+		int booking = 0;
+		for (int o = 0; o < operators; o++) {
+			String operatorId = serviceOperatorService
+					.createServiceOperator(new ServiceOperatorRequest("Operator " + o)).getOperatorId();
+			this.operatorIds.add(operatorId);
+			for (int d = 0; d < days; d++) {
+				for (int h = 0; h < bookingsPerDay; h++) {
+					appointmentService.scheduleAppointment(new AppointmentRequest(null,
+							customerName(booking++ % customers), FIRST_DAY.plusDays(d), LocalTime.of(h, 0),
+							operatorId));
+				}
+			}
+		}
+	}
+
+	public static String customerName(int customer) {
+		return "Customer " + customer;
+	}
+
+	@Override
+	public void close() {
+		this.context.close();
+		if (this.redisProxy != null) {
+			this.redisProxy.close();
+		}
+		try {
+			this.redisServer.stop();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static int freePort() {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package com.carserviceagency.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.carserviceagency.exceptions.AppointmentConflictException;
+import com.carserviceagency.payload.requests.AppointmentRequest;
+import com.carserviceagency.payload.response.AppointmentResponse;
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.scheduling.SlotOccupancyIndex;
+import com.carserviceagency.service.AppointmentService;
+
+/**
+ * Conflict detection when booking against an operator with a long history:
+ * the in-memory slot index, a full rejected booking through the service, the
+ * history scan the index replaced, and a successful book-then-cancel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingBenchmark {
+
+	private BenchmarkEnvironment environment;
+
+	private AppointmentService appointmentService;
+
+	private AppointmentRepo appointmentRepo;
+
+	private SlotOccupancyIndex slotOccupancyIndex;
+
+	private String operatorId;
+
+	private AppointmentRequest conflictingRequest;
+
+	private int freeSlot;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.environment = BenchmarkEnvironment.start(Map.of());
+		this.environment.seed(10, 60, 8, 200);
+		this.appointmentService = this.environment.bean(AppointmentService.class);
+		this.appointmentRepo = this.environment.bean(AppointmentRepo.class);
+		this.slotOccupancyIndex = this.environment.bean(SlotOccupancyIndex.class);
+		this.operatorId = this.environment.getOperatorIds().get(0);
+		this.conflictingRequest = new AppointmentRequest(null, "Customer", BenchmarkEnvironment.FIRST_DAY.plusDays(30),
+				LocalTime.of(4, 0), this.operatorId);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.environment.close();
+	}
+
+	@Benchmark
+	public boolean indexConflictCheck() {
+		return this.slotOccupancyIndex.isFree(this.operatorId, this.conflictingRequest.getDate(),
+				this.conflictingRequest.getStartTime(), this.conflictingRequest.getStartTime().plusHours(1));
+	}
+
+	@Benchmark
+	public boolean historyScanConflictCheck() {
+		return this.appointmentRepo.findAllAppointments(this.operatorId).stream()
+				.anyMatch(e -> e.getDate().equals(this.conflictingRequest.getDate())
+						&& e.getStartTime().equals(this.conflictingRequest.getStartTime()));
+	}
+
+	@Benchmark
+	public Object rejectedBooking() {
+		try {
+			return this.appointmentService.scheduleAppointment(this.conflictingRequest);
+		} catch (AppointmentConflictException e) {
+			return e;
+		}
+	}
+
+	@Benchmark
+	public AppointmentResponse bookAndCancel() {
+		int slot = this.freeSlot++;
+		LocalDate date = BenchmarkEnvironment.FIRST_DAY.plusDays(1000 + slot / 24);
+		AppointmentResponse appointment = this.appointmentService.scheduleAppointment(
+				new AppointmentRequest(null, "Customer", date, LocalTime.of(slot % 24, 0), this.operatorId));
+		this.appointmentService.cancelAppointment(appointment.getAppointmentId());
+		return appointment;
+	}
+}
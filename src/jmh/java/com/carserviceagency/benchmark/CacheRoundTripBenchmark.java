@@ -0,0 +1,84 @@
+package com.carserviceagency.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.carserviceagency.cache.AppointmentCacheInvalidator;
+import com.carserviceagency.cache.CacheSerializerType;
+import com.carserviceagency.cache.TwoTierCache;
+import com.carserviceagency.payload.response.AppointmentResponse;
+
+/**
+ * A customer list written to and read back from the Redis tier under each
+ * serializer, next to a hit on the local tier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheRoundTripBenchmark {
+
+	@Param({ "BINARY", "JSON", "JDK" })
+	private CacheSerializerType serializerType;
+
+	private BenchmarkEnvironment environment;
+
+	private TwoTierCache cache;
+
+	private Cache remote;
+
+	private final String key = BenchmarkEnvironment.customerName(1);
+
+	private final List<AppointmentResponse> value = CacheSerializerBenchmark.customerList(50);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.environment = BenchmarkEnvironment.start(Map.of(
+				"appointment.cache.caches[" + AppointmentCacheInvalidator.APPOINTMENTS_OF_CUSTOMER + "].serializer",
+				this.serializerType));
+		this.cache = (TwoTierCache) this.environment.bean(CacheManager.class)
+				.getCache(AppointmentCacheInvalidator.APPOINTMENTS_OF_CUSTOMER);
+		this.remote = this.cache.getRemote();
+		this.cache.put(this.key, this.value);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.environment.close();
+	}
+
+	@Benchmark
+	public Object redisRoundTrip() {
+		this.remote.put(this.key, this.value);
+		return this.remote.get(this.key).get();
+	}
+
+	@Benchmark
+	public Object redisRead() {
+		return this.remote.get(this.key).get();
+	}
+
+	@Benchmark
+	public Object localHit() {
+		return this.cache.get(this.key).get();
+	}
+}
@@ -0,0 +1,102 @@
+package com.carserviceagency.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.carserviceagency.cache.CacheSerializerType;
+import com.carserviceagency.payload.response.AppointmentResponse;
+import com.carserviceagency.payload.response.AppointmentSummaryResponse;
+import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+
+/**
+ * Encode and decode cost of the cached payloads under each
+ * {@link CacheSerializerType}. The encoded size of every payload is printed
+ * once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+	@Param({ "BINARY", "JSON", "JDK" })
+	private CacheSerializerType serializerType;
+
+	@Param({ "appointment", "customerList", "operatorReport" })
+	private String payload;
+
+	private RedisSerializer<Object> serializer;
+
+	private Object value;
+
+	private byte[] encoded;
+
+	@Setup
+	public void setUp() {
+		this.serializer = this.serializerType.create();
+		this.value = switch (this.payload) {
+		case "appointment" -> appointment(1);
+		case "customerList" -> customerList(50);
+		default -> operatorReport(20, 20);
+		};
+		this.encoded = this.serializer.serialize(this.value);
+		System.out.println(this.serializerType + " " + this.payload + ": " + this.encoded.length + " bytes");
+	}
+
+	@Benchmark
+	public byte[] serialize() {
+		return this.serializer.serialize(this.value);
+	}
+
+	@Benchmark
+	public Object deserialize() {
+		return this.serializer.deserialize(this.encoded);
+	}
+
+	static AppointmentResponse appointment(long id) {
+		return new AppointmentResponse(id, "Customer " + (id % 100), "OP" + String.format("%04d", id % 20),
+				"Operator " + (id % 20), LocalDate.of(2024, 5, 10).plusDays(id % 30),
+				LocalTime.of((int) (id % 24), 0), LocalTime.of((int) ((id + 1) % 24), 0));
+	}
+
+	static List<AppointmentResponse> customerList(int size) {
+		List<AppointmentResponse> appointments = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			appointments.add(appointment(i));
+		}
+		return appointments;
+	}
+
+	static List<AppointmentsOfOperatorResponse> operatorReport(int operators, int appointmentsPerOperator) {
+		List<AppointmentsOfOperatorResponse> report = new ArrayList<>(operators);
+		for (int o = 0; o < operators; o++) {
+			List<AppointmentSummaryResponse> appointments = new ArrayList<>(appointmentsPerOperator);
+			for (int a = 0; a < appointmentsPerOperator; a++) {
+				long id = (long) o * appointmentsPerOperator + a;
+				appointments.add(new AppointmentSummaryResponse(id, "Customer " + (id % 100),
+						LocalDate.of(2024, 5, 10).plusDays(a), LocalTime.of(a % 24, 0), LocalTime.of((a + 1) % 24, 0)));
+			}
+			report.add(new AppointmentsOfOperatorResponse("OP" + String.format("%04d", o), appointmentsPerOperator,
+					"Operator " + o, appointments));
+		}
+		return report;
+	}
+}
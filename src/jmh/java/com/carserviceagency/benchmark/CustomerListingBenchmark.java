@@ -0,0 +1,91 @@
+package com.carserviceagency.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.AopTestUtils;
+
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.mapper.AppointmentMapper;
+import com.carserviceagency.payload.response.AppointmentPageResponse;
+import com.carserviceagency.payload.response.AppointmentResponse;
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.service.AppointmentService;
+
+/**
+ * Customer history listing: the whole history and a single keyset page, each
+ * served from the cache and loaded without it, and the mapping step alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerListingBenchmark {
+
+	private BenchmarkEnvironment environment;
+
+	private AppointmentService appointmentService;
+
+	private AppointmentService uncachedAppointmentService;
+
+	private AppointmentMapper appointmentMapper;
+
+	private List<Appointment> customerAppointments;
+
+	private final String customerName = BenchmarkEnvironment.customerName(7);
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.environment = BenchmarkEnvironment.start(Map.of());
+		this.environment.seed(10, 30, 8, 40);
+		this.appointmentService = this.environment.bean(AppointmentService.class);
+		this.uncachedAppointmentService = AopTestUtils.getUltimateTargetObject(this.appointmentService);
+		this.appointmentMapper = this.environment.bean(AppointmentMapper.class);
+		this.customerAppointments = this.environment.bean(AppointmentRepo.class).findByCustomerName(this.customerName);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.environment.close();
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> cachedCustomerList() {
+		return this.appointmentService.getAllAppointentsOfCustomer(this.customerName);
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> uncachedCustomerList() {
+		return this.uncachedAppointmentService.getAllAppointentsOfCustomer(this.customerName);
+	}
+
+	@Benchmark
+	public AppointmentPageResponse cachedCustomerPage() {
+		return this.appointmentService.getAppointmentsOfCustomer(this.customerName, null, 20);
+	}
+
+	@Benchmark
+	public AppointmentPageResponse uncachedCustomerPage() {
+		return this.uncachedAppointmentService.getAppointmentsOfCustomer(this.customerName, null, 20);
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> customerListMapping() {
+		return this.appointmentMapper.toResponses(this.customerAppointments);
+	}
+}
@@ -0,0 +1,93 @@
+package com.carserviceagency.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TCP proxy that delivers every chunk a fixed time after it was received, in
+ * both directions, standing in for a server across the network. Chunks are
+ * delayed, not queued behind each other, so pipelined traffic on one
+ * connection keeps its throughput.
+ */
+final class LatencyProxy implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+
+	private final int targetPort;
+
+	private final long latencyNanos;
+
+	LatencyProxy(int targetPort, Duration latency) {
+		this.targetPort = targetPort;
+		this.latencyNanos = latency.toNanos();
+		try {
+			this.serverSocket = new ServerSocket(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		Thread.ofPlatform().daemon().name("latency-proxy").start(this::accept);
+	}
+
+	int getPort() {
+		return this.serverSocket.getLocalPort();
+	}
+
+	private void accept() {
+		while (!this.serverSocket.isClosed()) {
+			try {
+				Socket client = this.serverSocket.accept();
+				Socket target = new Socket("localhost", this.targetPort);
+				client.setTcpNoDelay(true);
+				target.setTcpNoDelay(true);
+				Thread.ofPlatform().daemon().start(() -> pump(client, target));
+				Thread.ofPlatform().daemon().start(() -> pump(target, client));
+			} catch (IOException e) {
+				// Closed
+			}
+		}
+	}
+
+	private void pump(Socket from, Socket to) {
+		ScheduledExecutorService delayer = Executors.newSingleThreadScheduledExecutor(
+				Thread.ofPlatform().daemon().factory());
+		try (InputStream in = from.getInputStream()) {
+			OutputStream out = to.getOutputStream();
+			byte[] buffer = new byte[16384];
+			int read;
+			while ((read = in.read(buffer)) > 0) {
+				byte[] chunk = Arrays.copyOf(buffer, read);
+				delayer.schedule(() -> {
+					out.write(chunk);
+					out.flush();
+					return null;
+				}, this.latencyNanos, TimeUnit.NANOSECONDS);
+			}
+		} catch (IOException e) {
+			// Connection closed by either side
+		} finally {
+			delayer.schedule(() -> {
+				to.close();
+				return null;
+			}, this.latencyNanos, TimeUnit.NANOSECONDS);
+			delayer.shutdown();
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.serverSocket.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.carserviceagency.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.mapper.AppointmentMapper;
+import com.carserviceagency.mapper.ServiceOperatorMapper;
+import com.carserviceagency.payload.requests.AppointmentRequest;
+import com.carserviceagency.payload.response.AppointmentResponse;
+import com.carserviceagency.payload.response.ServiceOperatorResponse;
+
+/**
+ * The hand-written mappers against the ModelMapper bean they replaced, on the
+ * same conversions the services perform. Add {@code -prof gc} to
+ * {@code jmh.args} to compare allocation per operation as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+	private final ModelMapper modelMapper = new ModelMapper();
+
+	private final AppointmentMapper appointmentMapper = new AppointmentMapper();
+
+	private final ServiceOperatorMapper serviceOperatorMapper = new ServiceOperatorMapper();
+
+	private ServiceOperator operator;
+
+	private Appointment appointment;
+
+	private List<Appointment> customerAppointments;
+
+	private AppointmentRequest appointmentRequest;
+
+	@Setup
+	public void setUp() {
+		this.operator = new ServiceOperator("OP0001", "Operator 1", 0);
+		this.appointment = appointment(1);
+		this.customerAppointments = new ArrayList<>(50);
+		for (int i = 0; i < 50; i++) {
+			this.customerAppointments.add(appointment(i));
+		}
+		this.appointmentRequest = new AppointmentRequest(null, "Customer", LocalDate.of(2024, 5, 10),
+				LocalTime.of(10, 0), "OP0001");
+		// Let ModelMapper build its type maps outside the measurement
+		modelMapperAppointment();
+		modelMapperRequest();
+		modelMapperOperator();
+	}
+
+	@Benchmark
+	public AppointmentResponse modelMapperAppointment() {
+		return toResponseWithModelMapper(this.appointment);
+	}
+
+	@Benchmark
+	public AppointmentResponse handWrittenAppointment() {
+		return this.appointmentMapper.toResponse(this.appointment);
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> modelMapperCustomerList() {
+		List<AppointmentResponse> appointmentResponses = new ArrayList<>();
+		for (Appointment customerAppointment : this.customerAppointments) {
+			appointmentResponses.add(toResponseWithModelMapper(customerAppointment));
+		}
+		return appointmentResponses;
+	}
+
+	@Benchmark
+	public List<AppointmentResponse> handWrittenCustomerList() {
+		return this.appointmentMapper.toResponses(this.customerAppointments);
+	}
+
+	@Benchmark
+	public Appointment modelMapperRequest() {
+		return this.modelMapper.map(this.appointmentRequest, Appointment.class);
+	}
+
+	@Benchmark
+	public Appointment handWrittenRequest() {
+		return this.appointmentMapper.toEntity(this.appointmentRequest);
+	}
+
+	@Benchmark
+	public ServiceOperatorResponse modelMapperOperator() {
+		return this.modelMapper.map(this.operator, ServiceOperatorResponse.class);
+	}
+
+	@Benchmark
+	public ServiceOperatorResponse handWrittenOperator() {
+		return this.serviceOperatorMapper.toResponse(this.operator);
+	}
+
+	// What the services did before the mappers existed
+	private AppointmentResponse toResponseWithModelMapper(Appointment source) {
+		AppointmentResponse appointmentResponse = this.modelMapper.map(source, AppointmentResponse.class);
+		appointmentResponse.setOperatorId(source.getOperator().getOperatorId());
+		appointmentResponse.setOperatorName(source.getOperator().getOperatorName());
+		return appointmentResponse;
+	}
+
+	private Appointment appointment(long id) {
+		Appointment appointment = new Appointment();
+		appointment.setAppointmentId(id);
+		appointment.setCustomerName("Customer " + id);
+		appointment.setDate(LocalDate.of(2024, 5, 10).plusDays(id % 30));
+		appointment.setStartTime(LocalTime.of((int) (id % 24), 0));
+		appointment.setEndTime(LocalTime.of((int) ((id + 1) % 24), 0));
+		appointment.setOperator(this.operator);
+		return appointment;
+	}
+}
@@ -0,0 +1,91 @@
+package com.carserviceagency.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.AopTestUtils;
+
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.repository.ServiceOperatorRepo;
+import com.carserviceagency.service.AppointmentService;
+
+/**
+ * The operators-with-appointments report: cached, built by the partitioned
+ * report engine at each parallelism cap, and built with one query per operator
+ * as it used to be.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperatorReportBenchmark {
+
+	@Param({ "1", "4" })
+	private int parallelism;
+
+	private BenchmarkEnvironment environment;
+
+	private AppointmentService appointmentService;
+
+	private AppointmentService uncachedAppointmentService;
+
+	private ServiceOperatorRepo serviceOperatorRepo;
+
+	private AppointmentRepo appointmentRepo;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.environment = BenchmarkEnvironment.start(Map.of("appointment.report.parallelism", this.parallelism,
+				"appointment.report.partition-size", 10));
+		this.environment.seed(50, 10, 4, 100);
+		this.appointmentService = this.environment.bean(AppointmentService.class);
+		this.uncachedAppointmentService = AopTestUtils.getUltimateTargetObject(this.appointmentService);
+		this.serviceOperatorRepo = this.environment.bean(ServiceOperatorRepo.class);
+		this.appointmentRepo = this.environment.bean(AppointmentRepo.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.environment.close();
+	}
+
+	@Benchmark
+	public List<AppointmentsOfOperatorResponse> cachedReport() {
+		return this.appointmentService.getAllAppointmentsOfOperators();
+	}
+
+	@Benchmark
+	public List<AppointmentsOfOperatorResponse> partitionedReport() {
+		return this.uncachedAppointmentService.getAllAppointmentsOfOperators();
+	}
+
+	@Benchmark
+	public List<Integer> perOperatorQueryReport() {
+		List<Integer> counts = new ArrayList<>();
+		for (ServiceOperator operator : this.serviceOperatorRepo.findAll()) {
+			List<Appointment> appointments = this.appointmentRepo.findAllAppointments(operator.getOperatorId());
+			counts.add(appointments.size());
+		}
+		return counts;
+	}
+}
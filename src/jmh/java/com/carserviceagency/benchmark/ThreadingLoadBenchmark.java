@@ -0,0 +1,112 @@
+package com.carserviceagency.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import com.carserviceagency.cache.AppointmentCacheInvalidator;
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.repository.AppointmentRepo;
+
+/**
+ * Load test of the HTTP layer in platform-thread and virtual-thread mode.
+ * Concurrent clients fetch appointments that are served from Redis, with the
+ * local cache tier off and latency added to the Redis link, so request time is
+ * dominated by waiting on I/O as it is in production. Each client sends waves
+ * of {@value #WAVE} asynchronous requests, so a handful of client threads keep
+ * hundreds of requests in flight without competing with the server for CPU.
+ * Throughput is per request; sample-time percentiles are wave durations
+ * divided by the wave size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class ThreadingLoadBenchmark {
+
+	private static final int WAVE = 50;
+
+	@Param({ "false", "true" })
+	private boolean virtualThreads;
+
+	@Param({ "25" })
+	private int redisLatencyMillis;
+
+	private BenchmarkEnvironment environment;
+
+	private ExecutorService clientExecutor;
+
+	private HttpClient client;
+
+	private List<URI> appointmentUris;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		this.environment = BenchmarkEnvironment.start(Map.of(
+				"spring.threads.virtual.enabled", this.virtualThreads,
+				"appointment.cache.caches[" + AppointmentCacheInvalidator.APPOINTMENTS + "].maximum-size", 0),
+				WebApplicationType.SERVLET, Duration.ofMillis(this.redisLatencyMillis));
+		this.environment.seed(4, 5, 8, 20);
+		this.clientExecutor = Executors.newFixedThreadPool(4);
+		this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).executor(this.clientExecutor)
+				.build();
+		this.appointmentUris = this.environment.bean(AppointmentRepo.class).findAll().stream()
+				.map(Appointment::getAppointmentId)
+				.map(id -> URI.create("http://localhost:" + this.environment.getPort() + "/appointment/v1/" + id))
+				.toList();
+		// Fill the Redis tier so that requests only wait on Redis, not the database
+		for (URI uri : this.appointmentUris) {
+			get(uri).join();
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.environment.close();
+		this.clientExecutor.shutdownNow();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WAVE)
+	public int getAppointments() {
+		CompletableFuture<?>[] wave = new CompletableFuture<?>[WAVE];
+		for (int i = 0; i < WAVE; i++) {
+			wave[i] = get(this.appointmentUris.get(ThreadLocalRandom.current().nextInt(this.appointmentUris.size())));
+		}
+		CompletableFuture.allOf(wave).join();
+		return wave.length;
+	}
+
+	private CompletableFuture<HttpResponse<Void>> get(URI uri) {
+		return this.client.sendAsync(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+	}
+}
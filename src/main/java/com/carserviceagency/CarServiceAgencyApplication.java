@@ -1,17 +1,19 @@
 package com.carserviceagency;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.security.servlet.SecurityAutoConfiguration;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @SpringBootApplication
 @EnableCaching
+@EnableAsync
+@EnableScheduling
 @EnableSwagger2
 public class CarServiceAgencyApplication {
 
@@ -19,8 +21,4 @@ public class CarServiceAgencyApplication {
 		SpringApplication.run(CarServiceAgencyApplication.class, args);
 	
 	}
-	@Bean
-	public ModelMapper modelMapper(){
-		return new ModelMapper();
-	}
 }
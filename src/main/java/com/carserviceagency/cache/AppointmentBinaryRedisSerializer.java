@@ -0,0 +1,283 @@
+package com.carserviceagency.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.carserviceagency.payload.response.AppointmentPageResponse;
+import com.carserviceagency.payload.response.AppointmentResponse;
+import com.carserviceagency.payload.response.AppointmentSummaryResponse;
+import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+
+/**
+ * Hand-rolled binary codec for the cached appointment payloads. A value is a
+ * one byte type tag followed by its fields in declaration order; numbers are
+ * written as zig-zag varints, strings as a varint length plus UTF-8 bytes,
+ * dates as epoch days and times as seconds of day, with 0 standing for null.
+ * Types the codec does not know are delegated to JDK serialization under
+ * their own tag, so any cacheable value still round-trips.
+ */
+public class AppointmentBinaryRedisSerializer implements RedisSerializer<Object> {
+
+	private static final byte TAG_NULL_VALUE = 0;
+	private static final byte TAG_APPOINTMENT = 1;
+	private static final byte TAG_APPOINTMENT_LIST = 2;
+	private static final byte TAG_OPERATOR_REPORT = 3;
+	private static final byte TAG_APPOINTMENT_PAGE = 4;
+	private static final byte TAG_LONG = 5;
+	private static final byte TAG_JDK = 127;
+
+	private final JdkSerializationRedisSerializer fallback = new JdkSerializationRedisSerializer();
+
+	@Override
+	public byte[] serialize(Object value) throws SerializationException {
+		if (value == null) {
+			return null;
+		}
+		Writer out = new Writer();
+		if (value instanceof NullValue) {
+			out.write(TAG_NULL_VALUE);
+		} else if (value instanceof AppointmentResponse appointment) {
+			out.write(TAG_APPOINTMENT);
+			writeAppointment(out, appointment);
+		} else if (value instanceof List<?> list && isListOf(list, AppointmentResponse.class)) {
+			out.write(TAG_APPOINTMENT_LIST);
+			out.writeVarLong(list.size());
+			for (Object appointment : list) {
+				writeAppointment(out, (AppointmentResponse) appointment);
+			}
+		} else if (value instanceof List<?> list && isListOf(list, AppointmentsOfOperatorResponse.class)) {
+			out.write(TAG_OPERATOR_REPORT);
+			out.writeVarLong(list.size());
+			for (Object operator : list) {
+				writeOperator(out, (AppointmentsOfOperatorResponse) operator);
+			}
+		} else if (value instanceof AppointmentPageResponse page && page.getAppointments() != null) {
+			out.write(TAG_APPOINTMENT_PAGE);
+			out.writeVarLong(page.getAppointments().size());
+			for (AppointmentResponse appointment : page.getAppointments()) {
+				writeAppointment(out, appointment);
+			}
+			out.writeString(page.getNextCursor());
+		} else if (value instanceof Long number) {
+			out.write(TAG_LONG);
+			out.writeVarLong(number);
+		} else {
+			out.write(TAG_JDK);
+			out.writeBytes(this.fallback.serialize(value));
+		}
+		return out.toByteArray();
+	}
+
+	@Override
+	public Object deserialize(byte[] bytes) throws SerializationException {
+		if (bytes == null || bytes.length == 0) {
+			return null;
+		}
+		ByteBuffer in = ByteBuffer.wrap(bytes);
+		byte tag = in.get();
+		switch (tag) {
+		case TAG_NULL_VALUE:
+			return NullValue.INSTANCE;
+		case TAG_APPOINTMENT:
+			return readAppointment(in);
+		case TAG_APPOINTMENT_LIST: {
+			int size = (int) readVarLong(in);
+			List<AppointmentResponse> appointments = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				appointments.add(readAppointment(in));
+			}
+			return appointments;
+		}
+		case TAG_OPERATOR_REPORT: {
+			int size = (int) readVarLong(in);
+			List<AppointmentsOfOperatorResponse> operators = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				operators.add(readOperator(in));
+			}
+			return operators;
+		}
+		case TAG_APPOINTMENT_PAGE: {
+			int size = (int) readVarLong(in);
+			List<AppointmentResponse> appointments = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				appointments.add(readAppointment(in));
+			}
+			return new AppointmentPageResponse(appointments, readString(in));
+		}
+		case TAG_LONG:
+			return readVarLong(in);
+		case TAG_JDK: {
+			byte[] payload = new byte[in.remaining()];
+			in.get(payload);
+			return this.fallback.deserialize(payload);
+		}
+		default:
+			throw new SerializationException("Unknown cache value tag: " + tag);
+		}
+	}
+
+	private static boolean isListOf(List<?> list, Class<?> type) {
+		for (Object element : list) {
+			if (!type.isInstance(element)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void writeAppointment(Writer out, AppointmentResponse appointment) {
+		out.writeNullableLong(appointment.getAppointmentId());
+		out.writeString(appointment.getCustomerName());
+		out.writeString(appointment.getOperatorId());
+		out.writeString(appointment.getOperatorName());
+		out.writeDate(appointment.getDate());
+		out.writeTime(appointment.getStartTime());
+		out.writeTime(appointment.getEndTime());
+	}
+
+	private static AppointmentResponse readAppointment(ByteBuffer in) {
+		return new AppointmentResponse(readNullableLong(in), readString(in), readString(in), readString(in),
+				readDate(in), readTime(in), readTime(in));
+	}
+
+	private static void writeOperator(Writer out, AppointmentsOfOperatorResponse operator) {
+		out.writeString(operator.getOperatorId());
+		out.writeVarLong(operator.getNoOfAppointments());
+		out.writeString(operator.getOperatorName());
+		List<AppointmentSummaryResponse> appointments = operator.getAppointments();
+		out.writeVarLong(appointments == null ? -1 : appointments.size());
+		if (appointments != null) {
+			for (AppointmentSummaryResponse appointment : appointments) {
+				out.writeNullableLong(appointment.getAppointmentId());
+				out.writeString(appointment.getCustomerName());
+				out.writeDate(appointment.getDate());
+				out.writeTime(appointment.getStartTime());
+				out.writeTime(appointment.getEndTime());
+			}
+		}
+	}
+
+	private static AppointmentsOfOperatorResponse readOperator(ByteBuffer in) {
+		String operatorId = readString(in);
+		int noOfAppointments = (int) readVarLong(in);
+		String operatorName = readString(in);
+		int size = (int) readVarLong(in);
+		List<AppointmentSummaryResponse> appointments = null;
+		if (size >= 0) {
+			appointments = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				appointments.add(new AppointmentSummaryResponse(readNullableLong(in), readString(in), readDate(in),
+						readTime(in), readTime(in)));
+			}
+		}
+		return new AppointmentsOfOperatorResponse(operatorId, noOfAppointments, operatorName, appointments);
+	}
+
+	private static long readVarLong(ByteBuffer in) {
+		long raw = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			raw |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return (raw >>> 1) ^ -(raw & 1);
+	}
+
+	private static Long readNullableLong(ByteBuffer in) {
+		return in.get() == 0 ? null : readVarLong(in);
+	}
+
+	private static String readString(ByteBuffer in) {
+		int length = (int) readVarLong(in);
+		if (length < 0) {
+			return null;
+		}
+		String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+		in.position(in.position() + length);
+		return value;
+	}
+
+	private static LocalDate readDate(ByteBuffer in) {
+		long value = readVarLong(in);
+		return value == 0 ? null : LocalDate.ofEpochDay(value > 0 ? value - 1 : value);
+	}
+
+	private static LocalTime readTime(ByteBuffer in) {
+		long value = readVarLong(in);
+		if (value == 0) {
+			return null;
+		}
+		return (value & 1) == 0 ? LocalTime.ofSecondOfDay((value >>> 1) - 1) : LocalTime.ofNanoOfDay((value >>> 1) - 1);
+	}
+
+	/**
+	 * Growable output buffer with the primitive encodings used above.
+	 */
+	private static final class Writer extends ByteArrayOutputStream {
+
+		Writer() {
+			super(128);
+		}
+
+		void writeVarLong(long value) {
+			long raw = (value << 1) ^ (value >> 63);
+			while ((raw & ~0x7FL) != 0) {
+				write((int) ((raw & 0x7F) | 0x80));
+				raw >>>= 7;
+			}
+			write((int) raw);
+		}
+
+		void writeNullableLong(Long value) {
+			if (value == null) {
+				write(0);
+			} else {
+				write(1);
+				writeVarLong(value);
+			}
+		}
+
+		void writeString(String value) {
+			if (value == null) {
+				writeVarLong(-1);
+				return;
+			}
+			byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+			writeVarLong(bytes.length);
+			writeBytes(bytes);
+		}
+
+		// Epoch days are shifted away from 0 so that 0 can stand for null
+		void writeDate(LocalDate value) {
+			if (value == null) {
+				writeVarLong(0);
+				return;
+			}
+			long epochDay = value.toEpochDay();
+			writeVarLong(epochDay >= 0 ? epochDay + 1 : epochDay);
+		}
+
+		// Whole seconds are stored compactly, the low bit flags a sub-second time
+		void writeTime(LocalTime value) {
+			if (value == null) {
+				writeVarLong(0);
+			} else if (value.getNano() == 0) {
+				writeVarLong((value.toSecondOfDay() + 1L) << 1);
+			} else {
+				writeVarLong(((value.toNanoOfDay() + 1) << 1) | 1);
+			}
+		}
+	}
+}
@@ -0,0 +1,143 @@
+package com.carserviceagency.cache;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Works out exactly which cache entries an appointment or operator write
+ * makes stale and evicts them in one go through
+ * {@link TwoTierCacheManager#evictAll}. Inside a transaction the eviction is
+ * deferred until after commit, so readers cannot re-cache the old state in
+ * between.
+ */
+@Component
+public class AppointmentCacheInvalidator {
+
+	public static final String APPOINTMENTS = "appointments";
+	public static final String APPOINTMENTS_OF_CUSTOMER = "appointmentsOfCustomer";
+	public static final String APPOINTMENTS_OF_OPERATORS = "appointmentsOfOperators";
+	public static final String APPOINTMENT_PAGES_OF_CUSTOMER = "appointmentPagesOfCustomer";
+	public static final String CUSTOMER_PAGE_GENERATIONS = "customerPageGenerations";
+
+	private static final Logger log = LoggerFactory.getLogger(AppointmentCacheInvalidator.class);
+
+	@Autowired
+	private TwoTierCacheManager cacheManager;
+
+	/**
+	 * Evict everything a booking, reschedule or cancellation of an appointment
+	 * affects: the appointment itself, the lists of every customer it belonged
+	 * to before and after the write, and the operator report.
+	 *
+	 * @param appointmentId The ID of the written appointment.
+	 * @param customerNames The customer names before and after the write.
+	 */
+	public void appointmentChanged(Long appointmentId, String... customerNames) {
+		appointmentsChanged(Arrays.asList(appointmentId), Arrays.asList(customerNames));
+	}
+
+	/**
+	 * Evict everything a write of several appointments affects, such as a batch
+	 * booking, in a single round trip.
+	 *
+	 * @param appointmentIds The IDs of the written appointments.
+	 * @param customerNames  The customer names before and after the writes.
+	 */
+	public void appointmentsChanged(Collection<Long> appointmentIds, Collection<String> customerNames) {
+		Set<Object> appointments = new LinkedHashSet<>();
+		for (Long appointmentId : appointmentIds) {
+			if (appointmentId != null) {
+				appointments.add(appointmentId);
+			}
+		}
+		Set<Object> customers = new LinkedHashSet<>();
+		for (String customerName : customerNames) {
+			if (customerName != null) {
+				customers.add(customerName);
+			}
+		}
+		Map<String, Set<Object>> keys = new LinkedHashMap<>();
+		if (!appointments.isEmpty()) {
+			keys.put(APPOINTMENTS, appointments);
+		}
+		if (!customers.isEmpty()) {
+			keys.put(APPOINTMENTS_OF_CUSTOMER, customers);
+			keys.put(CUSTOMER_PAGE_GENERATIONS, customers);
+		}
+		keys.put(APPOINTMENTS_OF_OPERATORS, Set.of(SimpleKey.EMPTY));
+		evictAfterCommit(keys);
+	}
+
+	/**
+	 * Evict the operator report after an operator was created or deleted.
+	 */
+	public void operatorsChanged() {
+		evictAfterCommit(Map.of(APPOINTMENTS_OF_OPERATORS, Set.of(SimpleKey.EMPTY)));
+	}
+
+	/**
+	 * Evict everything that embeds an operator name after an operator was
+	 * renamed. Renames are rare, so the appointment caches are simply cleared.
+	 */
+	public void operatorRenamed() {
+		runAfterCommit(() -> {
+			for (String cacheName : List.of(APPOINTMENTS, APPOINTMENTS_OF_CUSTOMER, APPOINTMENTS_OF_OPERATORS,
+					APPOINTMENT_PAGES_OF_CUSTOMER, CUSTOMER_PAGE_GENERATIONS)) {
+				this.cacheManager.getCache(cacheName).clear();
+			}
+		});
+	}
+
+	/**
+	 * The current generation of a customer's cached history pages. Page keys
+	 * include it, and evicting it on every write of the customer's appointments
+	 * orphans all of their cached pages at once; those then simply expire.
+	 *
+	 * @param customerName The customer whose pages are read.
+	 * @return An opaque token that changes after every such write.
+	 */
+	public Long customerPageGeneration(String customerName) {
+		return this.cacheManager.getCache(CUSTOMER_PAGE_GENERATIONS).get(customerName,
+				() -> ThreadLocalRandom.current().nextLong());
+	}
+
+	private void evictAfterCommit(Map<String, ? extends Set<Object>> keys) {
+		runAfterCommit(() -> this.cacheManager.evictAll(keys));
+	}
+
+	private void runAfterCommit(Runnable eviction) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					evictQuietly(eviction);
+				}
+			});
+		} else {
+			evictQuietly(eviction);
+		}
+	}
+
+	// The write itself has already succeeded, so a cache outage must not fail it
+	private void evictQuietly(Runnable eviction) {
+		try {
+			eviction.run();
+		} catch (RuntimeException e) {
+			log.warn("Cache eviction failed, stale entries will live until they expire", e);
+		}
+	}
+}
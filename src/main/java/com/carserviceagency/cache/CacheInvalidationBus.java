@@ -0,0 +1,98 @@
+package com.carserviceagency.cache;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Broadcasts local-tier invalidations to every node over Redis pub/sub and
+ * applies the ones received from other nodes. A message carries the ID of
+ * the sending node on its first line, followed by one {@code cache<TAB>key}
+ * line per evicted entry, or a bare {@code cache} line when the whole cache
+ * was cleared.
+ */
+public class CacheInvalidationBus implements MessageListener {
+
+	private final String nodeId = UUID.randomUUID().toString();
+
+	private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+	private final StringRedisTemplate redisTemplate;
+
+	private final String channel;
+
+	public CacheInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+		this.redisTemplate = redisTemplate;
+		this.channel = channel;
+	}
+
+	void register(TwoTierCache cache) {
+		this.caches.put(cache.getName(), cache);
+	}
+
+	public String getChannel() {
+		return this.channel;
+	}
+
+	/**
+	 * Tell the other nodes to drop the given keys from their local tier.
+	 */
+	public void publishEvict(String cacheName, Collection<String> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		this.redisTemplate.convertAndSend(this.channel, encodeEvict(Map.of(cacheName, keys)));
+	}
+
+	/**
+	 * Build the message that drops the given keys, grouped by cache name, from
+	 * the local tier of the other nodes.
+	 */
+	public String encodeEvict(Map<String, ? extends Collection<String>> keysByCache) {
+		StringBuilder message = new StringBuilder(this.nodeId);
+		keysByCache.forEach((cacheName, keys) -> {
+			for (String key : keys) {
+				message.append('\n').append(cacheName).append('\t')
+						.append(URLEncoder.encode(key, StandardCharsets.UTF_8));
+			}
+		});
+		return message.toString();
+	}
+
+	/**
+	 * Tell the other nodes to clear their local tier of the given cache.
+	 */
+	public void publishClear(String cacheName) {
+		this.redisTemplate.convertAndSend(this.channel, this.nodeId + '\n' + cacheName);
+	}
+
+	@Override
+	public void onMessage(Message message, byte[] pattern) {
+		String[] lines = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+		if (lines.length == 0 || this.nodeId.equals(lines[0])) {
+			return;
+		}
+		for (int i = 1; i < lines.length; i++) {
+			int tab = lines[i].indexOf('\t');
+			if (tab < 0) {
+				TwoTierCache cache = this.caches.get(lines[i]);
+				if (cache != null) {
+					cache.clearLocal();
+				}
+				continue;
+			}
+			TwoTierCache cache = this.caches.get(lines[i].substring(0, tab));
+			if (cache != null) {
+				cache.evictLocal(URLDecoder.decode(lines[i].substring(tab + 1), StandardCharsets.UTF_8));
+			}
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package com.carserviceagency.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Sizing and expiry of the two-tier caches, bound from
+ * {@code appointment.cache.*}. Caches without an entry under {@code caches}
+ * use {@code default-spec}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "appointment.cache")
+public class CacheProperties {
+
+	private String invalidationChannel = "appointment-cache-invalidation";
+
+	private Spec defaultSpec = new Spec();
+
+	private Map<String, Spec> caches = new LinkedHashMap<>();
+
+	public Spec specOf(String cacheName) {
+		return this.caches.getOrDefault(cacheName, this.defaultSpec);
+	}
+
+	@Getter
+	@Setter
+	public static class Spec {
+
+		// Maximum number of entries kept in the local tier
+		private long maximumSize = 10_000;
+
+		// How long an entry may live in the local tier
+		private Duration localTtl = Duration.ofMinutes(1);
+
+		// How long an entry may live in Redis
+		private Duration ttl = Duration.ofMinutes(10);
+
+		// How values are encoded in Redis
+		private CacheSerializerType serializer = CacheSerializerType.BINARY;
+
+		// How eagerly hot keys are reloaded before their Redis entry expires, 0 turns early refresh off
+		private double earlyRefreshBeta;
+	}
+}
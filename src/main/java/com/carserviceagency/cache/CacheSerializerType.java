@@ -0,0 +1,28 @@
+package com.carserviceagency.cache;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * The value serializers a cache can be configured with through
+ * {@code appointment.cache.caches[name].serializer}.
+ */
+public enum CacheSerializerType {
+
+	BINARY, JSON, JDK;
+
+	public RedisSerializer<Object> create() {
+		switch (this) {
+		case JSON:
+			return new GenericJackson2JsonRedisSerializer()
+					.configure(mapper -> mapper.registerModule(new JavaTimeModule()));
+		case JDK:
+			return new JdkSerializationRedisSerializer();
+		default:
+			return new AppointmentBinaryRedisSerializer();
+		}
+	}
+}
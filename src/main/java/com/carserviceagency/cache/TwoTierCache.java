@@ -0,0 +1,402 @@
+package com.carserviceagency.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+/**
+ * A cache with a bounded in-process Caffeine tier in front of a Redis tier.
+ * Reads try the local tier first and fall back to Redis, populating the local
+ * tier on the way back. Writes go to both tiers and are broadcast through the
+ * {@link CacheInvalidationBus} so other nodes drop their now stale local copy.
+ * Local entries are keyed by the string form of the cache key, which is also
+ * how Redis keys them. Hits per tier, misses, puts and invalidations are
+ * counted for the cache metrics.
+ * <p>
+ * Misses of {@link #get(Object, Callable)} are coalesced: one caller per key
+ * runs the loader and concurrent callers wait for its result. With a positive
+ * {@code early-refresh-beta}, a local hit may also reload the value before its
+ * Redis entry expires, with a probability that rises as the expiry nears
+ * (XFetch). The one caller that wins the refresh reloads, everyone else keeps
+ * getting the current value, so a hot key never drops out of Redis.
+ */
+public class TwoTierCache implements Cache {
+
+	private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+	// Assumed load time until the first load of this cache has been measured
+	private static final long INITIAL_LOAD_NANOS = Duration.ofMillis(10).toNanos();
+
+	private final String name;
+
+	private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+
+	private final Cache remote;
+
+	private final CacheInvalidationBus invalidationBus;
+
+	private final Duration remoteTtl;
+
+	private final double earlyRefreshBeta;
+
+	private final Function<Object, Duration> remainingRemoteTtl;
+
+	private final ConcurrentMap<String, Load> loads = new ConcurrentHashMap<>();
+
+	private volatile long averageLoadNanos = INITIAL_LOAD_NANOS;
+
+	private final LongAdder localHits = new LongAdder();
+	private final LongAdder remoteHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder puts = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private final LongAdder coalescedLoads = new LongAdder();
+	private final LongAdder earlyRefreshes = new LongAdder();
+
+	/**
+	 * @param remainingRemoteTtl Looks up how long a key has left in Redis, or
+	 *                           returns null if it is unknown. Only called when
+	 *                           early refresh is on.
+	 */
+	public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local,
+			Cache remote, CacheInvalidationBus invalidationBus, CacheProperties.Spec spec,
+			Function<Object, Duration> remainingRemoteTtl) {
+		this.name = name;
+		this.local = local;
+		this.remote = remote;
+		this.invalidationBus = invalidationBus;
+		this.remoteTtl = spec.getTtl();
+		this.earlyRefreshBeta = spec.getEarlyRefreshBeta();
+		this.remainingRemoteTtl = remainingRemoteTtl;
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this;
+	}
+
+	public Cache getRemote() {
+		return this.remote;
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		String localKey = localKey(key);
+		ValueWrapper value = this.local.getIfPresent(localKey);
+		if (value != null) {
+			this.localHits.increment();
+			return value;
+		}
+		value = getRemote(key, localKey);
+		if (value == null) {
+			this.misses.increment();
+		}
+		return value;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper value = get(key);
+		Object stored = value == null ? null : value.get();
+		if (stored != null && type != null && !type.isInstance(stored)) {
+			throw new IllegalStateException(
+					"Cached value is not of required type [" + type.getName() + "]: " + stored);
+		}
+		return (T) stored;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		// Loaded outside Caffeine's compute, whose map bin monitor would pin a virtual thread during the Redis round trip
+		String localKey = localKey(key);
+		ValueWrapper value = this.local.getIfPresent(localKey);
+		if (value != null) {
+			this.localHits.increment();
+			if (value instanceof LocalValue localValue && shouldRefreshEarly(localValue)) {
+				return (T) load(key, localKey, valueLoader, localValue);
+			}
+			return (T) value.get();
+		}
+		value = getRemote(key, localKey);
+		if (value != null) {
+			return (T) value.get();
+		}
+		this.misses.increment();
+		return (T) load(key, localKey, valueLoader, null);
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		this.puts.increment();
+		this.remote.put(key, value);
+		String localKey = localKey(key);
+		this.local.put(localKey, new LocalValue(value, expiryIn(this.remoteTtl)));
+		supersedeLoad(localKey);
+		this.invalidationBus.publishEvict(this.name, List.of(localKey));
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		ValueWrapper existing = this.remote.putIfAbsent(key, value);
+		if (existing == null) {
+			this.puts.increment();
+		}
+		String localKey = localKey(key);
+		this.local.put(localKey, new LocalValue(existing == null ? value : existing.get(),
+				existing == null ? expiryIn(this.remoteTtl) : remoteExpiry(key)));
+		if (existing == null) {
+			supersedeLoad(localKey);
+			this.invalidationBus.publishEvict(this.name, List.of(localKey));
+		}
+		return existing;
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.invalidations.increment();
+		this.remote.evict(key);
+		String localKey = localKey(key);
+		this.local.invalidate(localKey);
+		supersedeLoad(localKey);
+		this.invalidationBus.publishEvict(this.name, List.of(localKey));
+	}
+
+	@Override
+	public void clear() {
+		this.invalidations.increment();
+		this.remote.clear();
+		this.local.invalidateAll();
+		supersedeLoads();
+		this.invalidationBus.publishClear(this.name);
+	}
+
+	void evictLocal(String localKey) {
+		this.invalidations.increment();
+		this.local.invalidate(localKey);
+		supersedeLoad(localKey);
+	}
+
+	void clearLocal() {
+		this.invalidations.increment();
+		this.local.invalidateAll();
+		supersedeLoads();
+	}
+
+	private void supersedeLoad(String localKey) {
+		Load load = this.loads.get(localKey);
+		if (load != null) {
+			load.superseded = true;
+		}
+	}
+
+	private void supersedeLoads() {
+		for (Load load : this.loads.values()) {
+			load.superseded = true;
+		}
+	}
+
+	/**
+	 * Read a key from Redis and keep it in the local tier.
+	 */
+	private ValueWrapper getRemote(Object key, String localKey) {
+		ValueWrapper value = this.remote.get(key);
+		if (value == null) {
+			return null;
+		}
+		this.remoteHits.increment();
+		LocalValue localValue = new LocalValue(value.get(), remoteExpiry(key));
+		this.local.put(localKey, localValue);
+		return localValue;
+	}
+
+	/**
+	 * Run the loader for a key, or wait for the caller already running it. A
+	 * refresh ({@code stale} is set) never waits: if the key is already being
+	 * loaded, or the loader fails, the stale value is returned instead. The
+	 * loaded value is only cached if the key was not invalidated or written
+	 * while it loaded, because it may predate that write.
+	 */
+	private Object load(Object key, String localKey, Callable<?> valueLoader, LocalValue stale) {
+		Load load = new Load();
+		Load inFlight = this.loads.putIfAbsent(localKey, load);
+		if (inFlight != null) {
+			if (stale != null) {
+				return stale.get();
+			}
+			this.coalescedLoads.increment();
+			try {
+				return inFlight.result.join();
+			} catch (CompletionException e) {
+				throw new ValueRetrievalException(key, valueLoader, e.getCause());
+			}
+		}
+
+		try {
+			if (stale != null) {
+				this.earlyRefreshes.increment();
+			}
+			long start = System.nanoTime();
+			Object value;
+			try {
+				value = valueLoader.call();
+			} catch (Exception e) {
+				if (stale != null) {
+					log.warn("Early refresh of '{}' in cache '{}' failed, serving the cached value", key, this.name, e);
+					load.result.complete(stale.get());
+					return stale.get();
+				}
+				load.result.completeExceptionally(e);
+				throw new ValueRetrievalException(key, valueLoader, e);
+			}
+			long loadNanos = System.nanoTime() - start;
+			this.averageLoadNanos += (loadNanos - this.averageLoadNanos) / 8;
+			if (!load.superseded) {
+				this.remote.put(key, value);
+				this.local.put(localKey, new LocalValue(value, expiryIn(this.remoteTtl)));
+				// Superseded between the check and the puts, which may have overwritten the newer state
+				if (load.superseded) {
+					this.local.invalidate(localKey);
+					this.remote.evict(key);
+				}
+			}
+			load.result.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			load.result.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.loads.remove(localKey, load);
+		}
+	}
+
+	/**
+	 * XFetch: refresh when {@code now - averageLoadTime * beta * ln(random)}
+	 * reaches the Redis expiry of the value.
+	 */
+	private boolean shouldRefreshEarly(LocalValue value) {
+		if (this.earlyRefreshBeta <= 0 || value.remoteExpiryNanos == LocalValue.UNKNOWN_EXPIRY) {
+			return false;
+		}
+		double headStart = this.averageLoadNanos * this.earlyRefreshBeta
+				* -Math.log(ThreadLocalRandom.current().nextDouble());
+		return System.nanoTime() - value.remoteExpiryNanos + headStart >= 0;
+	}
+
+	private long remoteExpiry(Object key) {
+		if (this.earlyRefreshBeta <= 0) {
+			return LocalValue.UNKNOWN_EXPIRY;
+		}
+		Duration remaining = this.remainingRemoteTtl.apply(key);
+		return remaining == null ? LocalValue.UNKNOWN_EXPIRY : expiryIn(remaining);
+	}
+
+	private long expiryIn(Duration ttl) {
+		if (this.earlyRefreshBeta <= 0 || ttl.isZero() || ttl.isNegative()) {
+			return LocalValue.UNKNOWN_EXPIRY;
+		}
+		return System.nanoTime() + ttl.toNanos();
+	}
+
+	public long getLocalSize() {
+		return this.local.estimatedSize();
+	}
+
+	/**
+	 * @return entries dropped from the local tier by its size bound or TTL.
+	 */
+	public long getLocalEvictions() {
+		return this.local.stats().evictionCount();
+	}
+
+	public long getLocalHits() {
+		return this.localHits.sum();
+	}
+
+	public long getRemoteHits() {
+		return this.remoteHits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	public long getPuts() {
+		return this.puts.sum();
+	}
+
+	/**
+	 * @return keys and whole caches invalidated on this node, including those
+	 *         broadcast by other nodes.
+	 */
+	public long getInvalidations() {
+		return this.invalidations.sum();
+	}
+
+	/**
+	 * @return misses that waited for another caller's load instead of loading.
+	 */
+	public long getCoalescedLoads() {
+		return this.coalescedLoads.sum();
+	}
+
+	public long getEarlyRefreshes() {
+		return this.earlyRefreshes.sum();
+	}
+
+	static String localKey(Object key) {
+		return String.valueOf(key);
+	}
+
+	/**
+	 * A load in progress. Callers that miss the same key meanwhile wait for its
+	 * result.
+	 */
+	private static final class Load {
+
+		private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+		// Set when the key is invalidated or written while loading
+		private volatile boolean superseded;
+	}
+
+	/**
+	 * A locally cached value and, when early refresh is on, the
+	 * {@link System#nanoTime()} at which its Redis entry expires.
+	 */
+	private static final class LocalValue implements ValueWrapper {
+
+		static final long UNKNOWN_EXPIRY = Long.MIN_VALUE;
+
+		private final Object value;
+
+		private final long remoteExpiryNanos;
+
+		LocalValue(Object value, long remoteExpiryNanos) {
+			this.value = value;
+			this.remoteExpiryNanos = remoteExpiryNanos;
+		}
+
+		@Override
+		public Object get() {
+			return this.value;
+		}
+	}
+}
@@ -0,0 +1,133 @@
+package com.carserviceagency.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Hands out a {@link TwoTierCache} per cache name, sized from
+ * {@link CacheProperties} and backed by the matching cache of the given
+ * {@link RedisCacheManager}.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+	private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+	private final RedisCacheManager redisCacheManager;
+
+	private final CacheProperties cacheProperties;
+
+	private final CacheInvalidationBus invalidationBus;
+
+	private final StringRedisTemplate redisTemplate;
+
+	public TwoTierCacheManager(RedisCacheManager redisCacheManager, CacheProperties cacheProperties,
+			CacheInvalidationBus invalidationBus, StringRedisTemplate redisTemplate) {
+		this.redisCacheManager = redisCacheManager;
+		this.cacheProperties = cacheProperties;
+		this.invalidationBus = invalidationBus;
+		this.redisTemplate = redisTemplate;
+		// Create the configured caches up front so their metrics are bound at startup
+		cacheProperties.getCaches().keySet().forEach(this::getCache);
+	}
+
+	@Override
+	public Cache getCache(String name) {
+		return this.caches.computeIfAbsent(name, this::createCache);
+	}
+
+	@Override
+	public Collection<String> getCacheNames() {
+		return Collections.unmodifiableSet(this.caches.keySet());
+	}
+
+	/**
+	 * Evict the given keys, grouped by cache name, from every tier on every node.
+	 * The Redis deletes and the invalidation broadcast are sent in a single
+	 * pipeline, so the whole eviction costs one round trip. This node drops its
+	 * local entries only once the pipeline has returned, as it ignores its own
+	 * broadcasts and a read in between would otherwise refill them from Redis.
+	 */
+	public void evictAll(Map<String, ? extends Collection<?>> keysByCache) {
+		List<byte[]> redisKeys = new ArrayList<>();
+		Map<String, List<String>> localKeysByCache = new LinkedHashMap<>();
+		keysByCache.forEach((cacheName, keys) -> {
+			TwoTierCache cache = (TwoTierCache) getCache(cacheName);
+			List<String> localKeys = new ArrayList<>(keys.size());
+			for (Object key : keys) {
+				redisKeys.add(redisKey(cache.getRemote(), key).getBytes(StandardCharsets.UTF_8));
+				localKeys.add(TwoTierCache.localKey(key));
+			}
+			localKeysByCache.put(cacheName, localKeys);
+		});
+		if (redisKeys.isEmpty()) {
+			return;
+		}
+		byte[] channel = this.invalidationBus.getChannel().getBytes(StandardCharsets.UTF_8);
+		byte[] message = this.invalidationBus.encodeEvict(localKeysByCache).getBytes(StandardCharsets.UTF_8);
+		this.redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			deleteAndPublish(connection, redisKeys, channel, message);
+			return null;
+		});
+		localKeysByCache.forEach((cacheName, localKeys) -> {
+			TwoTierCache cache = (TwoTierCache) getCache(cacheName);
+			localKeys.forEach(cache::evictLocal);
+		});
+	}
+
+	private static void deleteAndPublish(RedisConnection connection, List<byte[]> redisKeys, byte[] channel,
+			byte[] message) {
+		for (byte[] redisKey : redisKeys) {
+			connection.keyCommands().del(redisKey);
+		}
+		connection.publish(channel, message);
+	}
+
+	private TwoTierCache createCache(String name) {
+		CacheProperties.Spec spec = this.cacheProperties.specOf(name);
+		Cache remote = this.redisCacheManager.getCache(name);
+		TwoTierCache cache = new TwoTierCache(name,
+				Caffeine.newBuilder()
+						.maximumSize(spec.getMaximumSize())
+						.expireAfterWrite(spec.getLocalTtl())
+						.recordStats()
+						.build(),
+				remote, this.invalidationBus, spec, key -> remainingTtl(remote, key));
+		this.invalidationBus.register(cache);
+		return cache;
+	}
+
+	/**
+	 * @return how long the key has left in Redis, or null if it has no expiry
+	 *         or is gone.
+	 */
+	private Duration remainingTtl(Cache remote, Object key) {
+		Long millis = this.redisTemplate.getExpire(redisKey(remote, key), TimeUnit.MILLISECONDS);
+		return millis == null || millis < 0 ? null : Duration.ofMillis(millis);
+	}
+
+	private static String redisKey(Cache remote, Object key) {
+		RedisCacheConfiguration configuration = ((RedisCache) remote).getCacheConfiguration();
+		return configuration.getKeyPrefixFor(remote.getName())
+				+ configuration.getConversionService().convert(key, String.class);
+	}
+}
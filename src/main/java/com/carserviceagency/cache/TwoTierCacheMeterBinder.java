@@ -0,0 +1,74 @@
+package com.carserviceagency.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Publishes the standard {@code cache.*} meters of a {@link TwoTierCache}: a
+ * hit in either tier counts as a hit, evictions are those of the local tier.
+ * Hits are also broken down by tier, and invalidations, which drive most
+ * removals in this application, are counted separately.
+ */
+public class TwoTierCacheMeterBinder extends CacheMeterBinder<TwoTierCache> {
+
+	public TwoTierCacheMeterBinder(TwoTierCache cache, Iterable<Tag> tags) {
+		super(cache, cache.getName(), tags);
+	}
+
+	@Override
+	protected Long size() {
+		TwoTierCache cache = getCache();
+		return cache == null ? null : cache.getLocalSize();
+	}
+
+	@Override
+	protected long hitCount() {
+		TwoTierCache cache = getCache();
+		return cache == null ? 0 : cache.getLocalHits() + cache.getRemoteHits();
+	}
+
+	@Override
+	protected Long missCount() {
+		TwoTierCache cache = getCache();
+		return cache == null ? null : cache.getMisses();
+	}
+
+	@Override
+	protected Long evictionCount() {
+		TwoTierCache cache = getCache();
+		return cache == null ? null : cache.getLocalEvictions();
+	}
+
+	@Override
+	protected long putCount() {
+		TwoTierCache cache = getCache();
+		return cache == null ? 0 : cache.getPuts();
+	}
+
+	@Override
+	protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+		TwoTierCache cache = getCache();
+		FunctionCounter.builder("cache.tier.hits", cache, TwoTierCache::getLocalHits)
+				.tags(getTagsWithCacheName()).tag("tier", "local")
+				.description("The number of times a cache lookup was served by the local tier")
+				.register(registry);
+		FunctionCounter.builder("cache.tier.hits", cache, TwoTierCache::getRemoteHits)
+				.tags(getTagsWithCacheName()).tag("tier", "remote")
+				.description("The number of times a cache lookup missed the local tier and was served by Redis")
+				.register(registry);
+		FunctionCounter.builder("cache.invalidations", cache, TwoTierCache::getInvalidations)
+				.tags(getTagsWithCacheName())
+				.description("The number of keys or whole caches invalidated, including broadcasts from other nodes")
+				.register(registry);
+		FunctionCounter.builder("cache.coalesced.loads", cache, TwoTierCache::getCoalescedLoads)
+				.tags(getTagsWithCacheName())
+				.description("The number of misses that waited for a load already in flight for the same key")
+				.register(registry);
+		FunctionCounter.builder("cache.early.refreshes", cache, TwoTierCache::getEarlyRefreshes)
+				.tags(getTagsWithCacheName())
+				.description("The number of values reloaded before their Redis entry expired")
+				.register(registry);
+	}
+}
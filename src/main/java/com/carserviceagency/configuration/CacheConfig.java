@@ -1,23 +1,74 @@
 package com.carserviceagency.configuration;
 
-import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
-import org.springframework.cache.CacheManager;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+
+import com.carserviceagency.cache.CacheInvalidationBus;
+import com.carserviceagency.cache.CacheProperties;
+import com.carserviceagency.cache.TwoTierCacheManager;
 
 @Configuration
+@EnableConfigurationProperties(CacheProperties.class)
 public class CacheConfig {
+
 		@Bean
-	    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-	        RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-	                .entryTtl(Duration.ofMinutes(10)); // Cache entries expire after 10 minutes
+		public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redisTemplate,
+				CacheProperties cacheProperties) {
+			return new CacheInvalidationBus(redisTemplate, cacheProperties.getInvalidationChannel());
+		}
 
-	        return RedisCacheManager.builder(connectionFactory)
+		@Bean
+		public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+				RedisConnectionFactory connectionFactory, CacheInvalidationBus cacheInvalidationBus,
+				CacheProperties cacheProperties, Environment environment) {
+			RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+			container.setConnectionFactory(connectionFactory);
+			// The container starts a thread per dispatched message, make those virtual in virtual-thread mode
+			if (Threading.VIRTUAL.isActive(environment)) {
+				SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("cache-invalidation-");
+				executor.setVirtualThreads(true);
+				container.setTaskExecutor(executor);
+			}
+			container.addMessageListener(cacheInvalidationBus,
+					new ChannelTopic(cacheProperties.getInvalidationChannel()));
+			return container;
+		}
+
+		@Bean
+	    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+	    		CacheInvalidationBus cacheInvalidationBus, StringRedisTemplate redisTemplate) {
+	        RedisCacheConfiguration cacheConfiguration = redisCacheConfiguration(cacheProperties.getDefaultSpec());
+
+	        Map<String, RedisCacheConfiguration> perCacheConfigurations = new HashMap<>();
+	        cacheProperties.getCaches().forEach((name, spec) -> perCacheConfigurations.put(name,
+	        		redisCacheConfiguration(spec)));
+
+	        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
 	                .cacheDefaults(cacheConfiguration)
+	                .withInitialCacheConfigurations(perCacheConfigurations)
 	                .build();
+	        redisCacheManager.afterPropertiesSet();
+
+	        return new TwoTierCacheManager(redisCacheManager, cacheProperties, cacheInvalidationBus, redisTemplate);
 	    }
+
+		private static RedisCacheConfiguration redisCacheConfiguration(CacheProperties.Spec spec) {
+			return RedisCacheConfiguration.defaultCacheConfig()
+					.entryTtl(spec.getTtl())
+					.serializeValuesWith(SerializationPair.fromSerializer(spec.getSerializer().create()));
+		}
 }
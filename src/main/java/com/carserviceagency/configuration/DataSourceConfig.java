@@ -0,0 +1,74 @@
+package com.carserviceagency.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.carserviceagency.datasource.ReplicaLagGuard;
+import com.carserviceagency.datasource.ReplicaProperties;
+import com.carserviceagency.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class DataSourceConfig {
+
+	// The pool behind spring.datasource.*, only reached through the routing data source
+	@Bean(autowireCandidate = false)
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+		return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	// Replica pools are not beans, so the actuator cannot find them; register their metrics here
+	@Bean(autowireCandidate = false)
+	public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+			ReplicaProperties replicaProperties, ObjectProvider<MeterRegistry> meterRegistry) {
+		List<DataSource> replicas = new ArrayList<>();
+		for (ReplicaProperties.Replica replica : replicaProperties.getReplicas()) {
+			HikariDataSource dataSource = replicaDataSource(replica);
+			dataSource.setPoolName("replica-" + replicas.size());
+			meterRegistry.ifAvailable(dataSource::setMetricRegistry);
+			replicas.add(dataSource);
+		}
+		return new ReplicaRoutingDataSource(primaryDataSource(dataSourceProperties), replicas);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaProperties replicaProperties,
+			ObjectProvider<MeterRegistry> meterRegistry) {
+		return new LazyConnectionDataSourceProxy(
+				replicaRoutingDataSource(dataSourceProperties, replicaProperties, meterRegistry));
+	}
+
+	@Bean
+	public ReplicaLagGuard replicaLagGuard(ReplicaProperties replicaProperties) {
+		return new ReplicaLagGuard(replicaProperties.getReplicaLag());
+	}
+
+	private static HikariDataSource replicaDataSource(ReplicaProperties.Replica replica) {
+		HikariDataSource dataSource = DataSourceBuilder.create()
+				.type(HikariDataSource.class)
+				.url(replica.getUrl())
+				.username(replica.getUsername())
+				.password(replica.getPassword())
+				.build();
+		dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+		dataSource.setReadOnly(true);
+		return dataSource;
+	}
+}
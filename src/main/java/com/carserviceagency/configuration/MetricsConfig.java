@@ -0,0 +1,51 @@
+package com.carserviceagency.configuration;
+
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.carserviceagency.cache.TwoTierCache;
+import com.carserviceagency.cache.TwoTierCacheMeterBinder;
+import com.carserviceagency.scheduling.SlotLockManager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class MetricsConfig {
+
+	// Lets the actuator bind cache.* meters for every cache of the TwoTierCacheManager
+	@Bean
+	public CacheMeterBinderProvider<TwoTierCache> twoTierCacheMeterBinderProvider() {
+		return TwoTierCacheMeterBinder::new;
+	}
+
+	@Bean
+	public MeterBinder slotLockMetrics(SlotLockManager slotLockManager) {
+		return registry -> {
+			FunctionCounter.builder("appointment.slot.locks.acquisitions", slotLockManager,
+					SlotLockManager::getAcquisitions)
+					.description("Slot lock stripes acquired by writers")
+					.register(registry);
+			FunctionCounter.builder("appointment.slot.locks.contended", slotLockManager,
+					SlotLockManager::getContendedAcquisitions)
+					.description("Slot lock acquisitions that had to wait for another writer")
+					.register(registry);
+			FunctionCounter.builder("appointment.slot.locks.timeouts", slotLockManager,
+					SlotLockManager::getTimeouts)
+					.description("Slot lock acquisitions that gave up after the lock timeout")
+					.register(registry);
+			FunctionCounter.builder("appointment.slot.locks.wait", slotLockManager,
+					lockManager -> lockManager.getTotalWaitNanos() / 1e9)
+					.baseUnit("seconds")
+					.description("Total time writers spent waiting for slot locks")
+					.register(registry);
+			Gauge.builder("appointment.slot.locks.wait.max", slotLockManager,
+					lockManager -> lockManager.getMaxWaitNanos() / 1e9)
+					.baseUnit("seconds")
+					.description("Longest wait for a slot lock since startup")
+					.register(registry);
+		};
+	}
+}
@@ -0,0 +1,76 @@
+package com.carserviceagency.configuration;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Watches for virtual threads that stay pinned to their carrier, typically by
+ * blocking inside a {@code synchronized} block in a driver or library, and
+ * logs where it happened. Pinned threads hold a carrier for the whole wait, so
+ * a few of them under load quietly bring virtual-thread mode back to
+ * platform-thread throughput. Only active in virtual-thread mode.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor implements SmartLifecycle {
+
+	private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+	private static final int LOGGED_FRAMES = 8;
+
+	@Value("${appointment.threads.pinned-threshold:20ms}")
+	private Duration threshold;
+
+	private final LongAdder pinnedEvents = new LongAdder();
+
+	private RecordingStream recording;
+
+	@Override
+	public void start() {
+		this.recording = new RecordingStream();
+		this.recording.enable("jdk.VirtualThreadPinned").withThreshold(this.threshold).withStackTrace();
+		this.recording.onEvent("jdk.VirtualThreadPinned", this::pinned);
+		this.recording.startAsync();
+	}
+
+	private void pinned(RecordedEvent event) {
+		this.pinnedEvents.increment();
+		List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+		log.warn("Virtual thread pinned for {} ms at\n\t{}", event.getDuration().toMillis(),
+				frames.stream().limit(LOGGED_FRAMES)
+						.map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+								+ ":" + frame.getLineNumber())
+						.collect(Collectors.joining("\n\t")));
+	}
+
+	public long getPinnedEvents() {
+		return this.pinnedEvents.sum();
+	}
+
+	@Override
+	public void stop() {
+		if (this.recording != null) {
+			this.recording.close();
+			this.recording = null;
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return this.recording != null;
+	}
+}
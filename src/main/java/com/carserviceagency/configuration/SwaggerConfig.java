@@ -1,11 +1,20 @@
 package com.carserviceagency.configuration;
 
+import java.lang.reflect.Field;
+import java.util.List;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
+
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @Configuration
@@ -19,4 +28,26 @@ public class SwaggerConfig {
 	                .paths(PathSelectors.any())
 	                .build();
 	    }
+
+	// Springfox only understands ant-style mappings and fails on the actuator's path-pattern ones, so hide those from it
+	@Bean
+	public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+				if (bean instanceof WebMvcRequestHandlerProvider) {
+					List<RequestMappingInfoHandlerMapping> mappings = handlerMappings(bean);
+					mappings.removeIf(mapping -> mapping.getPatternParser() != null);
+				}
+				return bean;
+			}
+
+			@SuppressWarnings("unchecked")
+			private List<RequestMappingInfoHandlerMapping> handlerMappings(Object bean) {
+				Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+				ReflectionUtils.makeAccessible(field);
+				return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+			}
+		};
+	}
 }
@@ -1,9 +1,15 @@
 package com.carserviceagency.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,16 +18,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.carserviceagency.events.OperatorScheduleFeed;
 import com.carserviceagency.exceptions.AppointmentException;
 import com.carserviceagency.payload.requests.AppointmentRequest;
 import com.carserviceagency.payload.requests.CheckAvailabilityRequest;
 import com.carserviceagency.payload.response.ApiResponse;
+import com.carserviceagency.payload.response.AppointmentEventPageResponse;
+import com.carserviceagency.payload.response.AppointmentPageResponse;
 import com.carserviceagency.payload.response.AppointmentResponse;
 import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+import com.carserviceagency.payload.response.BatchBookingResponse;
 import com.carserviceagency.payload.response.CheckAvailabilityResponse;
 import com.carserviceagency.service.AppointmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/appointment/v1")
@@ -30,6 +44,12 @@ public class AppointmentController {
 	@Autowired
 	private AppointmentService appointmentService;
 
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private OperatorScheduleFeed operatorScheduleFeed;
+
 	
 	
 	// Endpoint for booking an appointment
@@ -43,6 +63,28 @@ public class AppointmentController {
 
 	
 	
+	// Endpoint for booking an appointment with the least loaded operator free at the selected time
+	@PostMapping("/book/any")
+	public ResponseEntity<AppointmentResponse> bookAppointmentWithAnyOperator(
+			@RequestBody AppointmentRequest appointmentRequest) throws AppointmentException {
+
+		return new ResponseEntity<AppointmentResponse>(
+				this.appointmentService.scheduleAppointmentWithAnyOperator(appointmentRequest), HttpStatus.OK);
+	}
+
+	
+	
+	// Endpoint for booking several appointments at once, each one succeeds or fails on its own
+	@PostMapping("/book/batch")
+	public ResponseEntity<BatchBookingResponse> bookAppointments(
+			@RequestBody List<AppointmentRequest> appointmentRequests) throws AppointmentException {
+
+		return new ResponseEntity<BatchBookingResponse>(
+				this.appointmentService.scheduleAppointments(appointmentRequests), HttpStatus.OK);
+	}
+
+	
+	
 	// Endpoint for rescheduling an appointment
 	@PutMapping("/{appointmentId}")
 	public ResponseEntity<AppointmentResponse> rescheduleTheAppointment(@PathVariable Long appointmentId,
@@ -84,6 +126,16 @@ public class AppointmentController {
 
 	
 	
+	// Endpoint for retrieving a customer's appointments one page at a time, pass the returned nextCursor to get the next page
+	@GetMapping(value = "/all/{name}", params = "size")
+	public ResponseEntity<AppointmentPageResponse> getAppointmentsOfCustomerPage(@PathVariable String name,
+			@RequestParam int size, @RequestParam(required = false) String cursor) throws AppointmentException {
+		return new ResponseEntity<AppointmentPageResponse>(
+				this.appointmentService.getAppointmentsOfCustomer(name, cursor, size), HttpStatus.OK);
+	}
+
+	
+	
 	// Endpoint for retrieving appointments for a specific service operator
 	@GetMapping("/operators")
 	public ResponseEntity<List<AppointmentsOfOperatorResponse>> getAppointmentsOfOperators() {
@@ -92,4 +144,59 @@ public class AppointmentController {
 				this.appointmentService.getAllAppointmentsOfOperators(), HttpStatus.OK);
 	}
 
+	
+	
+	// Endpoint for exporting the appointments of every service operator as newline-delimited JSON, one operator per line
+	@GetMapping(value = "/operators/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportAppointmentsOfOperators() {
+		StreamingResponseBody body = out -> {
+			try {
+				this.appointmentService.streamAppointmentsOfOperators(operator -> {
+					try {
+						out.write(this.objectMapper.writeValueAsBytes(operator));
+						out.write('\n');
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+		};
+		// Not derived from produces, nothing converts a StreamingResponseBody
+		HttpHeaders headers = new HttpHeaders();
+		headers.setContentType(MediaType.APPLICATION_NDJSON);
+		return new ResponseEntity<StreamingResponseBody>(body, headers, HttpStatus.OK);
+	}
+
+	
+	
+	// Endpoint for checking the free time ranges of one operator, or of every operator, from date to toDate
+	@GetMapping("/availability")
+	public ResponseEntity<List<CheckAvailabilityResponse>> checkAvailability(
+			CheckAvailabilityRequest checkAvailabilityRequest) throws AppointmentException {
+		return new ResponseEntity<List<CheckAvailabilityResponse>>(
+				this.appointmentService.checkAvailability(checkAvailabilityRequest), HttpStatus.OK);
+	}
+
+	
+	
+	// Endpoint for reading appointment changes, pass the returned nextOffset to get the next page
+	@GetMapping("/events")
+	public ResponseEntity<AppointmentEventPageResponse> getAppointmentEvents(@RequestParam int size,
+			@RequestParam(required = false) String after) throws AppointmentException {
+		return new ResponseEntity<AppointmentEventPageResponse>(this.appointmentService.getAppointmentEvents(after, size),
+				HttpStatus.OK);
+	}
+
+	
+	
+	// Endpoint for following an operator's bookings, reschedules and cancellations as server-sent events, optionally of one date
+	@GetMapping(value = "/operators/{operatorId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> streamOperatorSchedule(@PathVariable String operatorId,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date)
+			throws AppointmentException {
+		return new ResponseEntity<SseEmitter>(this.operatorScheduleFeed.subscribe(operatorId, date), HttpStatus.OK);
+	}
+
 }
@@ -1,8 +1,10 @@
 package com.carserviceagency.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,12 +14,14 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.carserviceagency.entities.ServiceOperator;
 import com.carserviceagency.exceptions.ResourceNotFoundException;
 import com.carserviceagency.payload.requests.ServiceOperatorRequest;
 import com.carserviceagency.payload.response.ApiResponse;
+import com.carserviceagency.payload.response.OperatorLoadResponse;
 import com.carserviceagency.payload.response.ServiceOperatorResponse;
 import com.carserviceagency.service.ServiceOperatorService;
 
@@ -46,6 +50,14 @@ public class ServiceOperatorController {
 		return new  ResponseEntity<List<ServiceOperatorResponse>>(this.serviceOperatorService.getAllOperators(),HttpStatus.OK);
 	}
 
+	// get the appointment load of every operator, overall and on a date (today by default)
+	@GetMapping("/load")
+	ResponseEntity<List<OperatorLoadResponse>> getOperatorLoad(
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+		return new ResponseEntity<List<OperatorLoadResponse>>(
+				this.serviceOperatorService.getOperatorLoad(date == null ? LocalDate.now() : date), HttpStatus.OK);
+	}
+
 	// update the operator
 	@PutMapping("/{operatorId}")
 	ResponseEntity<ServiceOperatorResponse> updateServiceOperator(@PathVariable String operatorId,@RequestBody ServiceOperator serviceOperator) throws ResourceNotFoundException {
@@ -0,0 +1,82 @@
+package com.carserviceagency.datasource;
+
+import java.time.Duration;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Decides whether a read may be served by a replica. Writers record the
+ * scopes they changed; for the replica lag window after that, reads of those
+ * scopes stay on the primary so a client sees its own booking straight away,
+ * and a cache refilled after the write is not refilled from a replica that has
+ * not caught up yet. Writes are tracked per node.
+ */
+public class ReplicaLagGuard {
+
+	/** Scope of reads that span every appointment, such as the operator report. */
+	public static final String ALL = "*";
+
+	/** Scope of reads that list every operator. */
+	public static final String OPERATORS = "operators";
+
+	private final Cache<String, Boolean> recentWrites;
+
+	public ReplicaLagGuard(Duration replicaLag) {
+		this.recentWrites = Caffeine.newBuilder().expireAfterWrite(replicaLag).build();
+	}
+
+	public static String customer(String customerName) {
+		return "customer:" + customerName;
+	}
+
+	public static String appointment(Long appointmentId) {
+		return "appointment:" + appointmentId;
+	}
+
+	public static String operator(String operatorId) {
+		return "operator:" + operatorId;
+	}
+
+	/**
+	 * Record that the given scopes were just written. Every write also counts
+	 * for {@link #ALL}.
+	 */
+	public void recordWrite(String... scopes) {
+		this.recentWrites.put(ALL, Boolean.TRUE);
+		for (String scope : scopes) {
+			this.recentWrites.put(scope, Boolean.TRUE);
+		}
+	}
+
+	/**
+	 * Let the current read-only transaction use a replica, unless one of the
+	 * given scopes was written within the replica lag window. Has no effect
+	 * outside a transaction.
+	 *
+	 * @param scopes The scopes the transaction reads.
+	 * @return Whether the transaction will read from a replica.
+	 */
+	public boolean readFromReplica(String... scopes) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()
+				|| !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return false;
+		}
+		for (String scope : scopes) {
+			if (this.recentWrites.getIfPresent(scope) != null) {
+				return false;
+			}
+		}
+		ReplicaRoutingDataSource.allowReplica();
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				ReplicaRoutingDataSource.clearReplicaAllowed();
+			}
+		});
+		return true;
+	}
+}
@@ -0,0 +1,38 @@
+package com.carserviceagency.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Read replicas of the primary database, bound from
+ * {@code appointment.datasource.*}. Without replicas every query goes to the
+ * primary.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("appointment.datasource")
+public class ReplicaProperties {
+
+	private List<Replica> replicas = new ArrayList<>();
+
+	/**
+	 * How far replicas may lag behind the primary. Reads of data written within
+	 * this window go to the primary.
+	 */
+	private Duration replicaLag = Duration.ofSeconds(2);
+
+	@Getter
+	@Setter
+	public static class Replica {
+		private String url;
+		private String username;
+		private String password;
+		private int maximumPoolSize = 10;
+	}
+}
@@ -0,0 +1,75 @@
+package com.carserviceagency.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections of read-only transactions that opted in through
+ * {@link ReplicaLagGuard} to the replicas, round robin, and everything else to
+ * the primary. The lookup happens when a connection is first used, so this
+ * must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * for the transaction's read-only flag to be known by then.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+	private static final String PRIMARY = "primary";
+
+	private static final ThreadLocal<Boolean> replicaAllowed = new ThreadLocal<>();
+
+	private final List<DataSource> replicas;
+
+	private final AtomicInteger nextReplica = new AtomicInteger();
+
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas) {
+		this.replicas = List.copyOf(replicas);
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		for (int i = 0; i < this.replicas.size(); i++) {
+			targets.put(i, this.replicas.get(i));
+		}
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+		afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (this.replicas.isEmpty() || replicaAllowed.get() == null
+				|| !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return PRIMARY;
+		}
+		return Math.floorMod(this.nextReplica.getAndIncrement(), this.replicas.size());
+	}
+
+	/**
+	 * Let the current thread's read-only transaction read from a replica, until
+	 * {@link #clearReplicaAllowed()} is called.
+	 */
+	static void allowReplica() {
+		replicaAllowed.set(Boolean.TRUE);
+	}
+
+	static void clearReplicaAllowed() {
+		replicaAllowed.remove();
+	}
+
+	@Override
+	public void destroy() throws IOException {
+		for (DataSource replica : this.replicas) {
+			if (replica instanceof Closeable closeable) {
+				closeable.close();
+			}
+		}
+	}
+}
@@ -6,22 +6,40 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+// The slot unique key also serves as the (operatorId, date, startTime) index for operator day lookups
+@Table(uniqueConstraints = @UniqueConstraint(name = Appointment.OPERATOR_SLOT_CONSTRAINT, columnNames = {
+		"operatorId", "date", "startTime" }), indexes = @Index(name = "idx_appointment_customer_date",
+				columnList = "customerName, date, startTime"))
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Appointment {
 
+	public static final String OPERATOR_SLOT_CONSTRAINT = "uk_appointment_operator_slot";
+
+	/** Name of this entity's row in the {@link IdGenerators#TABLE} table. */
+	public static final String ID_GENERATOR = "appointment";
+
+	// Pooled table generator: each node reserves a block of IDs per round trip, so inserts can be batched
 	 @Id
-	    @GeneratedValue(strategy = GenerationType.IDENTITY)
+	    @GeneratedValue(strategy = GenerationType.TABLE, generator = ID_GENERATOR)
+	    @TableGenerator(name = ID_GENERATOR, table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+	            valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = ID_GENERATOR,
+	            allocationSize = IdGenerators.ALLOCATION_SIZE)
 	    private Long appointmentId;
 
 	    private String customerName;
@@ -33,5 +51,8 @@ public class Appointment {
 	    @JoinColumn(name = "operatorId", referencedColumnName = "operatorId")
 	    private ServiceOperator operator;
 
+	    @Version
+	    private Long version;
+
     // Constructors, getters, and setters
 }
@@ -0,0 +1,67 @@
+package com.carserviceagency.entities;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A change to an appointment, written to this outbox table in the transaction
+ * that made the change and removed once it has been relayed to the event
+ * stream. A reschedule carries the slot the appointment moved away from.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_appointment_event_sequence", columnList = "sequence"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEvent {
+
+	/** Name of this entity's row in the {@link IdGenerators#TABLE} table. */
+	public static final String ID_GENERATOR = "appointment_event";
+
+	public enum Type {
+		BOOKED, RESCHEDULED, CANCELLED
+	}
+
+	// Pooled like the appointment IDs, so the events of a batch booking are inserted in one batch
+	@Id
+	@GeneratedValue(strategy = GenerationType.TABLE, generator = ID_GENERATOR)
+	@TableGenerator(name = ID_GENERATOR, table = IdGenerators.TABLE, pkColumnName = IdGenerators.NAME_COLUMN,
+			valueColumnName = IdGenerators.VALUE_COLUMN, pkColumnValue = ID_GENERATOR,
+			allocationSize = IdGenerators.ALLOCATION_SIZE)
+	private Long eventId;
+
+	// Orders the events of an operator as their changes committed, which the pooled event IDs do not
+	private Long sequence;
+
+	@Enumerated(EnumType.STRING)
+	private Type type;
+
+	private Instant occurredAt;
+
+	private Long appointmentId;
+	private String operatorId;
+	private String customerName;
+	private LocalDate date;
+	private LocalTime startTime;
+	private LocalTime endTime;
+
+	private LocalDate previousDate;
+	private LocalTime previousStartTime;
+	private LocalTime previousEndTime;
+}
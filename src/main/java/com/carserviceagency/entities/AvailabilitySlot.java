@@ -1,6 +1,6 @@
 package com.carserviceagency.entities;
 
-import java.util.List;
+import java.time.LocalTime;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -12,5 +12,6 @@ import lombok.Setter;
 @NoArgsConstructor
 @AllArgsConstructor
 public class AvailabilitySlot {
-	private List<AvailabilitySlot> slots;
+	private LocalTime startTime;
+	private LocalTime endTime;
 }
@@ -0,0 +1,17 @@
+package com.carserviceagency.entities;
+
+/**
+ * Layout of the shared ID generator table. Hibernate keeps one row per entity
+ * in it and hands out IDs in blocks of {@link #ALLOCATION_SIZE}, with the
+ * pooled optimizer, so a node only touches the table once per block.
+ */
+public final class IdGenerators {
+
+	public static final String TABLE = "id_generator";
+	public static final String NAME_COLUMN = "sequence_name";
+	public static final String VALUE_COLUMN = "next_val";
+	public static final int ALLOCATION_SIZE = 50;
+
+	private IdGenerators() {
+	}
+}
@@ -1,5 +1,6 @@
 package com.carserviceagency.entities;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 
@@ -15,11 +16,18 @@ import lombok.Setter;
 @AllArgsConstructor
 public class ServiceOperator {
 
+	public static final String ID_PREFIX = "OP";
+
+	/** Name of this entity's row in the {@link IdGenerators#TABLE} table. */
+	public static final String ID_GENERATOR = "service_operator";
+
 	@Id
 	private String operatorId;
 	private String operatorName;
 	public void setOperatorId(String operatorId) {
 		this.operatorId = operatorId;
 	}
+	// Only changed by the counter updates in ServiceOperatorRepo, so saving a stale operator cannot overwrite it
+	@Column(updatable = false)
 	private int numberOfAppointments;
 }
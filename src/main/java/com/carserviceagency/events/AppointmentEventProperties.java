@@ -0,0 +1,66 @@
+package com.carserviceagency.events;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The appointment change stream, bound from {@code appointment.events.*}. The
+ * relay interval and the feed's poll and heartbeat intervals are read by their
+ * schedules directly, from {@code appointment.events.relay-interval},
+ * {@code appointment.events.feed.poll-interval} and
+ * {@code appointment.events.feed.heartbeat-interval}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("appointment.events")
+public class AppointmentEventProperties {
+
+	/**
+	 * Where relayed events are published: {@code redis} for a Redis stream,
+	 * {@code memory} for a stream that only lives in this process.
+	 */
+	private String sink = "redis";
+
+	private String streamKey = "appointment-events";
+
+	/**
+	 * How many events the stream keeps. Older ones are trimmed, so a consumer
+	 * that falls further behind misses events.
+	 */
+	private long maxLength = 100_000;
+
+	/**
+	 * The most outbox rows published per relay transaction.
+	 */
+	private int relayBatchSize = 200;
+
+	private Feed feed = new Feed();
+
+	/**
+	 * The server-sent event feed of operator schedule changes.
+	 */
+	@Getter
+	@Setter
+	public static class Feed {
+
+		// Changes held for a subscriber that has not received them yet, one more drops the subscriber.
+		// Keep it above appointment.booking.max-batch-size: a batch for one operator arrives as one burst
+		private int bufferSize = 256;
+
+		// Threads writing to subscribers, shared by all of them
+		private int writerThreads = 4;
+
+		// A write to one subscriber that takes longer drops the subscriber and puts another writer thread in its place
+		private Duration writeTimeout = Duration.ofSeconds(5);
+
+		// The most writer threads added in place of ones stuck writing to dropped subscribers
+		private int maxStalledWriters = 64;
+
+		// How long a subscription stays open before the client has to reconnect
+		private Duration timeout = Duration.ofMinutes(30);
+	}
+}
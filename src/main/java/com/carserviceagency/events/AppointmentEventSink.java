@@ -0,0 +1,38 @@
+package com.carserviceagency.events;
+
+import java.util.List;
+
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.exceptions.AppointmentException;
+import com.carserviceagency.payload.response.AppointmentEventResponse;
+
+/**
+ * The stream the {@link OutboxRelay} publishes appointment events to. Every
+ * published event gets an offset that orders it after the ones published
+ * before it, so a consumer can resume reading after the last offset it saw.
+ */
+public interface AppointmentEventSink {
+
+	/**
+	 * Append an event to the stream.
+	 *
+	 * @return the offset of the event.
+	 */
+	String publish(AppointmentEvent event);
+
+	/**
+	 * @return the offset of the newest event, or {@code null} if the stream is
+	 *         empty.
+	 */
+	String lastOffset();
+
+	/**
+	 * Read events in the order they were published.
+	 *
+	 * @param after The offset of the last event already read, or {@code null}
+	 *              to read from the oldest event still in the stream.
+	 * @param limit The most events to read.
+	 * @throws AppointmentException If the offset is not one of this stream.
+	 */
+	List<AppointmentEventResponse> read(String after, int limit) throws AppointmentException;
+}
@@ -0,0 +1,120 @@
+package com.carserviceagency.events;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.journal.JournaledBooking;
+import com.carserviceagency.repository.AppointmentEventRepo;
+import com.carserviceagency.repository.EventSequenceRepository;
+
+/**
+ * Records appointment changes in the outbox table, for the
+ * {@link OutboxRelay} to publish. Every method joins the transaction that
+ * writes the change and fails without one, so an event is stored if and only
+ * if its change commits. Each event takes the next number of its operator's
+ * sequence, which the relay publishes in.
+ */
+@Component
+@Transactional(propagation = Propagation.MANDATORY)
+public class AppointmentOutbox {
+
+	@Autowired
+	private AppointmentEventRepo appointmentEventRepo;
+
+	@Autowired
+	private EventSequenceRepository eventSequenceRepository;
+
+	public void booked(Appointment appointment) {
+		save(event(AppointmentEvent.Type.BOOKED, appointment));
+	}
+
+	public void booked(Collection<Appointment> appointments) {
+		List<AppointmentEvent> events = new ArrayList<>(appointments.size());
+		for (Appointment appointment : appointments) {
+			events.add(event(AppointmentEvent.Type.BOOKED, appointment));
+		}
+		saveAll(events);
+	}
+
+	/**
+	 * Record bookings that were acknowledged from the booking journal, once
+	 * they are inserted.
+	 */
+	public void journaled(Collection<JournaledBooking> bookings) {
+		List<AppointmentEvent> events = new ArrayList<>(bookings.size());
+		for (JournaledBooking booking : bookings) {
+			events.add(event(AppointmentEvent.Type.BOOKED, booking.getAppointmentId(), booking.getOperatorId(),
+					booking.getCustomerName(), booking.getDate(), booking.getStartTime(), booking.getEndTime()));
+		}
+		saveAll(events);
+	}
+
+	/**
+	 * @param appointment The appointment as it is after the change.
+	 */
+	public void rescheduled(Appointment appointment, LocalDate previousDate, LocalTime previousStartTime,
+			LocalTime previousEndTime) {
+		AppointmentEvent event = event(AppointmentEvent.Type.RESCHEDULED, appointment);
+		event.setPreviousDate(previousDate);
+		event.setPreviousStartTime(previousStartTime);
+		event.setPreviousEndTime(previousEndTime);
+		save(event);
+	}
+
+	public void cancelled(Appointment appointment) {
+		save(event(AppointmentEvent.Type.CANCELLED, appointment));
+	}
+
+	private void save(AppointmentEvent event) {
+		event.setSequence(this.eventSequenceRepository.reserve(event.getOperatorId(), 1));
+		this.appointmentEventRepo.save(event);
+	}
+
+	private void saveAll(List<AppointmentEvent> events) {
+		Map<String, List<AppointmentEvent>> byOperator = new TreeMap<>();
+		for (AppointmentEvent event : events) {
+			byOperator.computeIfAbsent(event.getOperatorId(), k -> new ArrayList<>()).add(event);
+		}
+		// In operator ID order, the order every transaction reserves several operators' numbers in
+		for (List<AppointmentEvent> ofOperator : byOperator.values()) {
+			long sequence = this.eventSequenceRepository.reserve(ofOperator.get(0).getOperatorId(), ofOperator.size());
+			for (AppointmentEvent event : ofOperator) {
+				event.setSequence(sequence++);
+			}
+		}
+		this.appointmentEventRepo.saveAll(events);
+	}
+
+	private static AppointmentEvent event(AppointmentEvent.Type type, Appointment appointment) {
+		return event(type, appointment.getAppointmentId(), appointment.getOperator().getOperatorId(),
+				appointment.getCustomerName(), appointment.getDate(), appointment.getStartTime(),
+				appointment.getEndTime());
+	}
+
+	private static AppointmentEvent event(AppointmentEvent.Type type, Long appointmentId, String operatorId,
+			String customerName, LocalDate date, LocalTime startTime, LocalTime endTime) {
+		AppointmentEvent event = new AppointmentEvent();
+		event.setType(type);
+		event.setOccurredAt(Instant.now());
+		event.setAppointmentId(appointmentId);
+		event.setOperatorId(operatorId);
+		event.setCustomerName(customerName);
+		event.setDate(date);
+		event.setStartTime(startTime);
+		event.setEndTime(endTime);
+		return event;
+	}
+}
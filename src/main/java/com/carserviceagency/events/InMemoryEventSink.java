@@ -0,0 +1,98 @@
+package com.carserviceagency.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.exceptions.AppointmentException;
+import com.carserviceagency.payload.response.AppointmentEventResponse;
+
+/**
+ * An event stream held in this process, for tests and single-node setups
+ * without Redis. Offsets are sequence numbers starting at 1, and only the
+ * newest {@code appointment.events.max-length} events are kept. The stream
+ * is lost on restart.
+ */
+@Component
+@ConditionalOnProperty(name = "appointment.events.sink", havingValue = "memory")
+public class InMemoryEventSink implements AppointmentEventSink {
+
+	// Ring buffer, the event at offset n is at index (n - 1) % length
+	private final AppointmentEventResponse[] events;
+
+	// Not synchronized: reads run on request threads, which may be virtual
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private long lastOffset;
+
+	@Autowired
+	public InMemoryEventSink(AppointmentEventProperties properties) {
+		this(properties.getMaxLength());
+	}
+
+	InMemoryEventSink(long maxLength) {
+		this.events = new AppointmentEventResponse[(int) Math.max(1, Math.min(maxLength, Integer.MAX_VALUE - 8))];
+	}
+
+	@Override
+	public String publish(AppointmentEvent event) {
+		this.lock.lock();
+		try {
+			String offset = Long.toString(this.lastOffset + 1);
+			this.events[(int) (this.lastOffset % this.events.length)] = new AppointmentEventResponse(offset,
+					event.getEventId(), event.getType(), event.getOccurredAt(), event.getAppointmentId(),
+					event.getOperatorId(), event.getCustomerName(), event.getDate(), event.getStartTime(),
+					event.getEndTime(), event.getPreviousDate(), event.getPreviousStartTime(),
+					event.getPreviousEndTime());
+			this.lastOffset++;
+			return offset;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public String lastOffset() {
+		this.lock.lock();
+		try {
+			return this.lastOffset == 0 ? null : Long.toString(this.lastOffset);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	@Override
+	public List<AppointmentEventResponse> read(String after, int limit) throws AppointmentException {
+		long from = after == null ? 0 : parse(after);
+		this.lock.lock();
+		try {
+			// Events overwritten since the consumer last read are skipped
+			long first = Math.max(from, this.lastOffset - this.events.length);
+			long last = Math.min(this.lastOffset, first + limit);
+			List<AppointmentEventResponse> page = new ArrayList<>((int) Math.max(0, last - first));
+			for (long index = first; index < last; index++) {
+				page.add(this.events[(int) (index % this.events.length)]);
+			}
+			return page;
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	private static long parse(String offset) {
+		try {
+			long parsed = Long.parseLong(offset);
+			if (parsed >= 0) {
+				return parsed;
+			}
+		} catch (NumberFormatException e) {
+			// Reported below
+		}
+		throw new AppointmentException("Invalid event offset: " + offset);
+	}
+}
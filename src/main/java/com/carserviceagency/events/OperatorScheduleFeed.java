@@ -0,0 +1,406 @@
+package com.carserviceagency.events;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.carserviceagency.exceptions.AppointmentException;
+import com.carserviceagency.payload.response.AppointmentEventResponse;
+import com.carserviceagency.scheduling.SlotOccupancyIndex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes the schedule changes of an operator to server-sent event
+ * subscribers. One poller per node tails the {@link AppointmentEventSink}
+ * while anyone is subscribed, so changes made on every node reach every
+ * subscriber, and fans each change out to the subscribers of its operator.
+ * An event's SSE ID is its stream offset, so a client that reconnects can
+ * catch up through the events endpoint.
+ * <p>
+ * A subscriber holds no thread while idle. Changes are queued in its own
+ * bounded buffer and written by a small shared pool of writer threads, which
+ * only pick a subscriber up while its buffer has something in it. A client
+ * that reads too slowly to keep its buffer from filling up is sent an
+ * {@code overflow} event and disconnected rather than slowing down the
+ * others; it should reload the schedule when it reconnects.
+ * <p>
+ * A write blocks while the client is not reading at all, until the
+ * container's write timeout. A subscriber whose write takes longer than the
+ * feed's write timeout is dropped, and another writer thread is started in
+ * place of the stuck one, so stalled clients cannot hold up the others.
+ */
+@Component
+public class OperatorScheduleFeed {
+
+	private static final Logger log = LoggerFactory.getLogger(OperatorScheduleFeed.class);
+
+	// The most stream entries read per poll round trip
+	private static final int POLL_PAGE_SIZE = 500;
+
+	private static final Delta HEARTBEAT = new Delta(null, null, null);
+
+	@Autowired
+	private AppointmentEventSink appointmentEventSink;
+
+	@Autowired
+	private AppointmentEventProperties properties;
+
+	@Autowired
+	private SlotOccupancyIndex slotOccupancyIndex;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private final ConcurrentMap<String, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+
+	private final AtomicInteger subscriberCount = new AtomicInteger();
+
+	// Guards the tail position, which subscribing may have to initialize
+	private final ReentrantLock tailLock = new ReentrantLock();
+
+	private boolean tailing;
+
+	private String offset;
+
+	private ThreadPoolExecutor writers;
+
+	// When each write in progress started, removed by whichever of the writer or the stall check gets to it first
+	private final ConcurrentMap<Subscriber, Long> writing = new ConcurrentHashMap<>();
+
+	// Guards the writer pool size, which grows by one for every writer stuck on a stalled subscriber
+	private final Object writerPoolSize = new Object();
+
+	private int stalledWriters;
+
+	private Counter overflows;
+
+	private Counter stalls;
+
+	@PostConstruct
+	public void init() {
+		// Platform threads: SseEmitter.send is synchronized and would pin a virtual thread for the whole write
+		int writerThreads = Math.max(1, this.properties.getFeed().getWriterThreads());
+		this.writers = new ThreadPoolExecutor(writerThreads, writerThreads, 1, TimeUnit.MINUTES,
+				new LinkedBlockingQueue<>(), new CustomizableThreadFactory("schedule-feed-"));
+		this.overflows = Counter.builder("appointment.feed.overflows")
+				.description("Schedule feed subscribers disconnected because they fell behind")
+				.register(this.meterRegistry);
+		this.stalls = Counter.builder("appointment.feed.stalls")
+				.description("Schedule feed subscribers disconnected because a write to them stalled")
+				.register(this.meterRegistry);
+		Gauge.builder("appointment.feed.subscribers", this.subscriberCount, AtomicInteger::get)
+				.description("Open schedule feed subscriptions on this node")
+				.register(this.meterRegistry);
+	}
+
+	/**
+	 * Subscribe to the schedule changes of an operator, from now on.
+	 *
+	 * @param date Only send changes to or from this date, or {@code null} for
+	 *             every date.
+	 * @throws AppointmentException If the operator does not exist.
+	 */
+	public SseEmitter subscribe(String operatorId, LocalDate date) throws AppointmentException {
+		if (!this.slotOccupancyIndex.operatorIds().contains(operatorId)) {
+			throw new AppointmentException("No operator found with ID: " + operatorId);
+		}
+		return register(new SseEmitter(this.properties.getFeed().getTimeout().toMillis()), operatorId, date);
+	}
+
+	SseEmitter register(SseEmitter emitter, String operatorId, LocalDate date) {
+		Subscriber subscriber = new Subscriber(emitter, operatorId, date,
+				Math.max(1, this.properties.getFeed().getBufferSize()));
+		emitter.onCompletion(() -> unsubscribe(subscriber));
+		emitter.onTimeout(() -> unsubscribe(subscriber));
+		emitter.onError(e -> unsubscribe(subscriber));
+		// Added within compute, so it cannot land in a set that a concurrent unsubscribe is dropping
+		this.subscribers.compute(operatorId, (k, ofOperator) -> {
+			Set<Subscriber> added = ofOperator == null ? ConcurrentHashMap.newKeySet() : ofOperator;
+			added.add(subscriber);
+			return added;
+		});
+		this.subscriberCount.incrementAndGet();
+		try {
+			startTailing();
+		} catch (RuntimeException e) {
+			unsubscribe(subscriber);
+			throw e;
+		}
+		// Held until the response starts, then flushes the headers so the client knows it is subscribed
+		enqueue(subscriber, HEARTBEAT);
+		return emitter;
+	}
+
+	@Scheduled(fixedDelayString = "${appointment.events.feed.poll-interval:PT0.2S}")
+	public void poll() {
+		this.tailLock.lock();
+		try {
+			if (this.subscriberCount.get() == 0) {
+				// Nobody is listening, the next subscriber starts from the end of the stream again
+				this.tailing = false;
+				return;
+			}
+			startTailing();
+			for (int read = POLL_PAGE_SIZE; read == POLL_PAGE_SIZE;) {
+				List<AppointmentEventResponse> events = this.appointmentEventSink.read(this.offset, POLL_PAGE_SIZE);
+				for (AppointmentEventResponse event : events) {
+					dispatch(event);
+					this.offset = event.getOffset();
+				}
+				read = events.size();
+			}
+		} catch (RuntimeException e) {
+			log.warn("Reading the appointment event stream failed, retrying on the next poll", e);
+		} finally {
+			this.tailLock.unlock();
+		}
+	}
+
+	/**
+	 * Keep idle connections open through proxies, and find the clients that
+	 * went away: a dead connection only fails when it is written to.
+	 */
+	@Scheduled(fixedDelayString = "${appointment.events.feed.heartbeat-interval:PT15S}")
+	public void heartbeat() {
+		for (Set<Subscriber> ofOperator : this.subscribers.values()) {
+			for (Subscriber subscriber : ofOperator) {
+				enqueue(subscriber, HEARTBEAT);
+			}
+		}
+	}
+
+	/**
+	 * Drop the subscribers whose current write has taken longer than the write
+	 * timeout, and start a writer thread in place of each stuck one.
+	 */
+	@Scheduled(fixedDelayString = "${appointment.events.feed.stall-check-interval:PT1S}")
+	public void dropStalledSubscribers() {
+		long timeout = this.properties.getFeed().getWriteTimeout().toNanos();
+		long now = System.nanoTime();
+		for (Map.Entry<Subscriber, Long> write : this.writing.entrySet()) {
+			Subscriber subscriber = write.getKey();
+			if (now - write.getValue() < timeout) {
+				continue;
+			}
+			synchronized (this.writerPoolSize) {
+				if (!this.writing.remove(subscriber, write.getValue())) {
+					// The write finished in the meantime
+					continue;
+				}
+				subscriber.stalled = true;
+				if (this.stalledWriters < this.properties.getFeed().getMaxStalledWriters()) {
+					this.stalledWriters++;
+					subscriber.replaced = true;
+					resizeWriters();
+				}
+			}
+			unsubscribe(subscriber);
+			subscriber.buffer.clear();
+			this.stalls.increment();
+			log.info("Schedule feed subscriber of operator {} stopped reading, disconnecting it", subscriber.operatorId);
+		}
+	}
+
+	@PreDestroy
+	public void close() {
+		for (Set<Subscriber> ofOperator : this.subscribers.values()) {
+			for (Subscriber subscriber : ofOperator) {
+				unsubscribe(subscriber);
+				subscriber.emitter.complete();
+			}
+		}
+		this.writers.shutdown();
+	}
+
+	private void startTailing() {
+		this.tailLock.lock();
+		try {
+			if (!this.tailing) {
+				this.offset = this.appointmentEventSink.lastOffset();
+				this.tailing = true;
+			}
+		} finally {
+			this.tailLock.unlock();
+		}
+	}
+
+	private void dispatch(AppointmentEventResponse event) {
+		Set<Subscriber> ofOperator = this.subscribers.get(event.getOperatorId());
+		if (ofOperator == null || ofOperator.isEmpty()) {
+			return;
+		}
+		// Serialized once, however many subscribers it goes to
+		Delta delta;
+		try {
+			delta = new Delta(event.getOffset(), event.getType().name(),
+					this.objectMapper.writeValueAsString(event));
+		} catch (JsonProcessingException e) {
+			log.error("Appointment event {} could not be serialized for the schedule feed", event.getEventId(), e);
+			return;
+		}
+		for (Subscriber subscriber : ofOperator) {
+			if (subscriber.date == null || subscriber.date.equals(event.getDate())
+					|| subscriber.date.equals(event.getPreviousDate())) {
+				enqueue(subscriber, delta);
+			}
+		}
+	}
+
+	private void enqueue(Subscriber subscriber, Delta delta) {
+		if (subscriber.closed.get()) {
+			return;
+		}
+		if (!subscriber.buffer.offer(delta)) {
+			subscriber.overflowed = true;
+			unsubscribe(subscriber);
+			subscriber.buffer.clear();
+			this.overflows.increment();
+		}
+		if (subscriber.draining.compareAndSet(false, true)) {
+			this.writers.execute(() -> drain(subscriber));
+		}
+	}
+
+	/**
+	 * Write a subscriber's buffered changes, until the buffer is empty.
+	 */
+	private void drain(Subscriber subscriber) {
+		try {
+			while (true) {
+				Delta delta;
+				while (!subscriber.overflowed && !subscriber.stalled && (delta = subscriber.buffer.poll()) != null) {
+					this.writing.put(subscriber, System.nanoTime());
+					try {
+						send(subscriber.emitter, delta);
+					} finally {
+						finishWrite(subscriber);
+					}
+				}
+				if (subscriber.stalled) {
+					// Left draining like an overflow, the client is not read from anyway
+					subscriber.emitter.complete();
+					return;
+				}
+				if (subscriber.overflowed) {
+					// Left draining, so nothing is written after the connection is completed
+					subscriber.emitter.send(SseEmitter.event().name("overflow").data("Too far behind, reconnect"));
+					subscriber.emitter.complete();
+					return;
+				}
+				subscriber.draining.set(false);
+				// A change queued after the buffer was found empty but before draining was cleared
+				if (subscriber.buffer.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+					return;
+				}
+			}
+		} catch (IOException | IllegalStateException e) {
+			// The client went away, the container completes the emitter
+			unsubscribe(subscriber);
+		}
+	}
+
+	private void finishWrite(Subscriber subscriber) {
+		if (this.writing.remove(subscriber) != null) {
+			return;
+		}
+		// Taken over by the stall check, which decides under this lock whether the thread was replaced
+		synchronized (this.writerPoolSize) {
+			if (subscriber.replaced) {
+				this.stalledWriters--;
+				resizeWriters();
+			}
+		}
+	}
+
+	private void resizeWriters() {
+		int size = Math.max(1, this.properties.getFeed().getWriterThreads()) + this.stalledWriters;
+		// The core size may never exceed the maximum size, so the order depends on the direction
+		if (size > this.writers.getMaximumPoolSize()) {
+			this.writers.setMaximumPoolSize(size);
+			this.writers.setCorePoolSize(size);
+		} else {
+			this.writers.setCorePoolSize(size);
+			this.writers.setMaximumPoolSize(size);
+		}
+	}
+
+	private static void send(SseEmitter emitter, Delta delta) throws IOException {
+		if (delta == HEARTBEAT) {
+			emitter.send(SseEmitter.event().comment("heartbeat"));
+		} else {
+			emitter.send(SseEmitter.event().id(delta.id).name(delta.name).data(delta.data, MediaType.APPLICATION_JSON));
+		}
+	}
+
+	private void unsubscribe(Subscriber subscriber) {
+		if (!subscriber.closed.compareAndSet(false, true)) {
+			return;
+		}
+		this.subscribers.computeIfPresent(subscriber.operatorId, (operatorId, ofOperator) -> {
+			ofOperator.remove(subscriber);
+			return ofOperator.isEmpty() ? null : ofOperator;
+		});
+		this.subscriberCount.decrementAndGet();
+	}
+
+	private record Delta(String id, String name, String data) {
+	}
+
+	private static final class Subscriber {
+
+		private final SseEmitter emitter;
+		private final String operatorId;
+		private final LocalDate date;
+		private final BlockingQueue<Delta> buffer;
+
+		// Set while a writer owns this subscriber, so its changes are written by one thread in order
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		private volatile boolean overflowed;
+
+		private volatile boolean stalled;
+
+		// Set once a writer thread has been started in place of the one stuck on this subscriber
+		private volatile boolean replaced;
+
+		private Subscriber(SseEmitter emitter, String operatorId, LocalDate date, int bufferSize) {
+			this.emitter = emitter;
+			this.operatorId = operatorId;
+			this.date = date;
+			this.buffer = new ArrayBlockingQueue<>(bufferSize);
+		}
+	}
+}
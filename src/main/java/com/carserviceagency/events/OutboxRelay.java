@@ -0,0 +1,106 @@
+package com.carserviceagency.events;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.repository.AppointmentEventRepo;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves appointment events from the outbox table to the
+ * {@link AppointmentEventSink}. Each batch is read oldest first under a row
+ * lock, published in that order and deleted in one transaction, so relays on
+ * several nodes take turns rather than publishing a batch twice.
+ * <p>
+ * Delivery is at least once: if publishing or the delete fails part way, the
+ * whole batch stays in the outbox and is published again on the next run, so
+ * consumers must skip event IDs they have already seen.
+ * <p>
+ * Events are read in order of their sequence number, then their event ID. The
+ * sequence numbers of an operator come from its row in
+ * {@link com.carserviceagency.repository.EventSequenceRepository}, which the
+ * writing transaction keeps locked until it commits, so one operator's events
+ * are numbered and published in the order their changes committed, whichever
+ * node made them. Different operators may draw the same number, and the event
+ * ID only settles the order between those.
+ */
+@Component
+@EnableConfigurationProperties(AppointmentEventProperties.class)
+public class OutboxRelay {
+
+	private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+	@Autowired
+	private AppointmentEventRepo appointmentEventRepo;
+
+	@Autowired
+	private AppointmentEventSink appointmentEventSink;
+
+	@Autowired
+	private AppointmentEventProperties properties;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	private Counter published;
+
+	@PostConstruct
+	public void init() {
+		this.published = Counter.builder("appointment.events.published")
+				.description("Appointment events relayed from the outbox to the event stream")
+				.register(this.meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${appointment.events.relay-interval:PT0.5S}")
+	public void relayScheduled() {
+		try {
+			relay();
+		} catch (RuntimeException e) {
+			log.warn("Relaying appointment events failed, retrying on the next run", e);
+		}
+	}
+
+	/**
+	 * Publish every event in the outbox, one batch per transaction.
+	 *
+	 * @return the number of events published.
+	 */
+	public int relay() {
+		int batchSize = Math.max(1, this.properties.getRelayBatchSize());
+		int total = 0;
+		for (int relayed = batchSize; relayed == batchSize;) {
+			Integer count = this.transactionTemplate.execute(status -> relayBatch(batchSize));
+			relayed = count == null ? 0 : count;
+			this.published.increment(relayed);
+			total += relayed;
+		}
+		return total;
+	}
+
+	private int relayBatch(int batchSize) {
+		List<AppointmentEvent> events = this.appointmentEventRepo.findOldestForRelay(Limit.of(batchSize));
+		if (events.isEmpty()) {
+			return 0;
+		}
+		for (AppointmentEvent event : events) {
+			this.appointmentEventSink.publish(event);
+		}
+		this.appointmentEventRepo.deleteAllInBatch(events);
+		return events.size();
+	}
+}
@@ -0,0 +1,120 @@
+package com.carserviceagency.events;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.connection.stream.StringRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.exceptions.AppointmentException;
+import com.carserviceagency.payload.response.AppointmentEventResponse;
+
+/**
+ * Publishes appointment events to a Redis stream, one entry per event with
+ * one field per event property. Offsets are the stream entry IDs. The stream
+ * is trimmed to about {@code appointment.events.max-length} entries as it is
+ * appended to.
+ */
+@Component
+@ConditionalOnProperty(name = "appointment.events.sink", havingValue = "redis", matchIfMissing = true)
+public class RedisStreamEventSink implements AppointmentEventSink {
+
+	private static final Pattern ENTRY_ID = Pattern.compile("\\d+-\\d+");
+
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+
+	@Autowired
+	private AppointmentEventProperties properties;
+
+	@Override
+	public String publish(AppointmentEvent event) {
+		Map<String, String> fields = new HashMap<>();
+		put(fields, "eventId", event.getEventId());
+		put(fields, "type", event.getType());
+		put(fields, "occurredAt", event.getOccurredAt());
+		put(fields, "appointmentId", event.getAppointmentId());
+		put(fields, "operatorId", event.getOperatorId());
+		put(fields, "customerName", event.getCustomerName());
+		put(fields, "date", event.getDate());
+		put(fields, "startTime", event.getStartTime());
+		put(fields, "endTime", event.getEndTime());
+		put(fields, "previousDate", event.getPreviousDate());
+		put(fields, "previousStartTime", event.getPreviousStartTime());
+		put(fields, "previousEndTime", event.getPreviousEndTime());
+		StringRecord record = StreamRecords.string(fields).withStreamKey(this.properties.getStreamKey());
+		// Approximate trimming only drops whole stream nodes, which keeps it cheap on every append
+		XAddOptions options = XAddOptions.maxlen(this.properties.getMaxLength()).approximateTrimming(true);
+		RecordId id = this.redisTemplate.execute(
+				(RedisCallback<RecordId>) connection -> ((StringRedisConnection) connection).xAdd(record, options));
+		return id.getValue();
+	}
+
+	@Override
+	public String lastOffset() {
+		List<StringRecord> newest = this.redisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+				((StringRedisConnection) connection).xRevRange(this.properties.getStreamKey(), Range.unbounded(),
+						Limit.limit().count(1)));
+		return newest == null || newest.isEmpty() ? null : newest.get(0).getId().getValue();
+	}
+
+	@Override
+	public List<AppointmentEventResponse> read(String after, int limit) throws AppointmentException {
+		if (after != null && !ENTRY_ID.matcher(after).matches()) {
+			throw new AppointmentException("Invalid event offset: " + after);
+		}
+		// XRANGE bounds are inclusive, so read one more and drop the entry the consumer already has
+		Range<String> range = after == null ? Range.unbounded()
+				: Range.rightUnbounded(Range.Bound.inclusive(after));
+		Limit count = Limit.limit().count(after == null ? limit : limit + 1);
+		List<StringRecord> records = this.redisTemplate.execute((RedisCallback<List<StringRecord>>) connection ->
+				((StringRedisConnection) connection).xRange(this.properties.getStreamKey(), range, count));
+		List<AppointmentEventResponse> events = new ArrayList<>(limit);
+		for (StringRecord record : records) {
+			if (events.size() < limit && !record.getId().getValue().equals(after)) {
+				events.add(toResponse(record));
+			}
+		}
+		return events;
+	}
+
+	private static AppointmentEventResponse toResponse(StringRecord record) {
+		Map<String, String> fields = record.getValue();
+		return new AppointmentEventResponse(record.getId().getValue(), get(fields, "eventId", Long::valueOf),
+				get(fields, "type", AppointmentEvent.Type::valueOf), get(fields, "occurredAt", Instant::parse),
+				get(fields, "appointmentId", Long::valueOf), fields.get("operatorId"), fields.get("customerName"),
+				get(fields, "date", LocalDate::parse), get(fields, "startTime", LocalTime::parse),
+				get(fields, "endTime", LocalTime::parse), get(fields, "previousDate", LocalDate::parse),
+				get(fields, "previousStartTime", LocalTime::parse), get(fields, "previousEndTime", LocalTime::parse));
+	}
+
+	// Absent fields stand for null values
+	private static void put(Map<String, String> fields, String name, Object value) {
+		if (value != null) {
+			fields.put(name, value.toString());
+		}
+	}
+
+	private static <T> T get(Map<String, String> fields, String name, Function<String, T> parser) {
+		String value = fields.get(name);
+		return value == null ? null : parser.apply(value);
+	}
+}
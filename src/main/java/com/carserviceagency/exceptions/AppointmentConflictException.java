@@ -0,0 +1,8 @@
+package com.carserviceagency.exceptions;
+
+public class AppointmentConflictException extends AppointmentException {
+
+    public AppointmentConflictException(String message) {
+        super(message);
+    }
+}
@@ -10,6 +10,11 @@ import com.carserviceagency.payload.response.ApiResponse;
 @RestControllerAdvice
 public class GlobalExceptionalHandler {
 
+	@ExceptionHandler(AppointmentConflictException.class)
+	public ResponseEntity<ApiResponse> exceptionalHandlerConflict(Exception ex){
+		return new ResponseEntity<ApiResponse>(new ApiResponse(ex.getMessage()),HttpStatus.CONFLICT);
+	}
+
 	@ExceptionHandler(AppointmentException.class)
 	public ResponseEntity<ApiResponse> exceptionalHandlerAppointment(Exception ex){
 		return new ResponseEntity<ApiResponse>(new ApiResponse(ex.getMessage()),HttpStatus.OK);
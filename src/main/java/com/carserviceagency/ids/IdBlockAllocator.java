@@ -0,0 +1,69 @@
+package com.carserviceagency.ids;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Hands out IDs from blocks leased from a shared store. Taking an ID from the
+ * current block is a single atomic increment; only the thread that finds the
+ * block exhausted leases the next one, while the others wait for it. IDs are
+ * unique across nodes and restarts, and increasing within a node; IDs left in
+ * a block when a node stops are never used.
+ */
+public class IdBlockAllocator {
+
+	private final IntToLongFunction leaser;
+
+	private final int blockSize;
+
+	private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+
+	// Not synchronized: a virtual thread leasing a block under a monitor would pin its carrier for the round trip
+	private final ReentrantLock refillLock = new ReentrantLock();
+
+	/**
+	 * @param leaser    Leases a block of the given size and returns its first ID.
+	 * @param blockSize The number of IDs leased per round trip.
+	 */
+	public IdBlockAllocator(IntToLongFunction leaser, int blockSize) {
+		this.leaser = leaser;
+		this.blockSize = blockSize;
+	}
+
+	public long next() {
+		while (true) {
+			Block block = this.current.get();
+			long id = block.cursor.getAndIncrement();
+			if (id < block.end) {
+				return id;
+			}
+			refill(block);
+		}
+	}
+
+	private void refill(Block exhausted) {
+		this.refillLock.lock();
+		try {
+			// Another thread may have leased a new block while this one waited
+			if (this.current.get() == exhausted) {
+				long first = this.leaser.applyAsLong(this.blockSize);
+				this.current.set(new Block(first, first + this.blockSize));
+			}
+		} finally {
+			this.refillLock.unlock();
+		}
+	}
+
+	private static final class Block {
+
+		private final AtomicLong cursor;
+		private final long end;
+
+		private Block(long first, long end) {
+			this.cursor = new AtomicLong(first);
+			this.end = end;
+		}
+	}
+}
@@ -0,0 +1,57 @@
+package com.carserviceagency.ids;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.repository.IdBlockRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Allocates operator IDs such as {@code OP0001} from blocks leased from the
+ * database, so they stay unique across restarts and across every node behind
+ * the load balancer without a round trip per operator.
+ */
+@Component
+@DependsOn("idGeneratorAligner")
+public class OperatorIdAllocator {
+
+	@Autowired
+	private IdBlockRepository idBlockRepository;
+
+	@Value("${appointment.ids.operator-block-size:20}")
+	private int blockSize;
+
+	private IdBlockAllocator allocator;
+
+	@PostConstruct
+	public void init() {
+		this.allocator = new IdBlockAllocator(
+				size -> this.idBlockRepository.leaseBlock(ServiceOperator.ID_GENERATOR, size), this.blockSize);
+	}
+
+	public String nextOperatorId() {
+		return format(this.allocator.next());
+	}
+
+	public static String format(long id) {
+		return ServiceOperator.ID_PREFIX + String.format("%04d", id);
+	}
+
+	/**
+	 * @return the number of an operator ID, or -1 if it was not allocated here.
+	 */
+	public static long parse(String operatorId) {
+		if (operatorId == null || !operatorId.startsWith(ServiceOperator.ID_PREFIX)) {
+			return -1;
+		}
+		try {
+			return Long.parseLong(operatorId.substring(ServiceOperator.ID_PREFIX.length()));
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+}
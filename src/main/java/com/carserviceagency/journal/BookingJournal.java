@@ -0,0 +1,276 @@
+package com.carserviceagency.journal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only journal of acknowledged bookings in a memory-mapped file.
+ * Bookings are appended after the unflushed ones and the header records how
+ * far they have been written to the database, so after a crash the bookings
+ * past that point are read back and written again. Once everything is
+ * flushed, the journal starts over from the beginning of the file.
+ * <p>
+ * A record is {@code length, crc, epoch, payload}. The length is written last,
+ * so a record torn by a crash has no length or a bad checksum and ends the
+ * journal. The epoch is bumped every time the journal starts over, so records
+ * of an earlier pass that are still in the file are never read back.
+ * <p>
+ * Appends survive a crash of the process once they return, because the mapped
+ * pages belong to the operating system. They only survive a crash of the
+ * machine with {@code sync} on, which forces every append to disk.
+ */
+public class BookingJournal implements Closeable {
+
+	private static final int MAGIC = 0x424b4a31;
+
+	private static final int EPOCH_AT = 8;
+	private static final int FLUSHED_AT = 16;
+	static final int HEADER_SIZE = 24;
+
+	// length, crc and epoch
+	private static final int RECORD_HEADER_SIZE = 16;
+
+	private final FileChannel channel;
+
+	private final MappedByteBuffer buffer;
+
+	private final boolean sync;
+
+	// Not synchronized: appends run on request threads, which may be virtual
+	private final ReentrantLock appendLock = new ReentrantLock();
+
+	private long epoch;
+
+	private volatile int writePosition;
+
+	private volatile int flushedPosition;
+
+	private BookingJournal(FileChannel channel, MappedByteBuffer buffer, boolean sync) {
+		this.channel = channel;
+		this.buffer = buffer;
+		this.sync = sync;
+	}
+
+	/**
+	 * Open the journal at the given path, creating it if it does not exist, and
+	 * find the end of the records that were appended before it was last closed
+	 * or the process crashed.
+	 *
+	 * @param size The size of a new journal file. An existing file keeps its
+	 *             size if that is larger.
+	 * @param sync Whether to force every append to disk.
+	 */
+	public static BookingJournal open(Path path, int size, boolean sync) throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			boolean created = channel.size() == 0;
+			int mappedSize = (int) Math.max(Math.max(size, channel.size()), HEADER_SIZE + RECORD_HEADER_SIZE);
+			BookingJournal journal = new BookingJournal(channel,
+					channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize), sync);
+			journal.recover(created, path);
+			return journal;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private void recover(boolean created, Path path) throws IOException {
+		if (created) {
+			this.buffer.putInt(0, MAGIC);
+			this.buffer.putLong(EPOCH_AT, 1);
+			this.buffer.putLong(FLUSHED_AT, HEADER_SIZE);
+			force(0, HEADER_SIZE);
+		} else if (this.buffer.getInt(0) != MAGIC) {
+			throw new IOException(path + " is not a booking journal");
+		}
+		this.epoch = this.buffer.getLong(EPOCH_AT);
+		long flushed = this.buffer.getLong(FLUSHED_AT);
+		if (flushed < HEADER_SIZE || flushed > this.buffer.capacity()) {
+			throw new IOException(path + " has a corrupt header");
+		}
+		this.flushedPosition = (int) flushed;
+		int position = this.flushedPosition;
+		for (int next = read(position, null); next > 0; next = read(position, null)) {
+			position = next;
+		}
+		this.writePosition = position;
+	}
+
+	/**
+	 * Append a booking.
+	 *
+	 * @return true once the booking is in the journal, false if the journal is
+	 *         full.
+	 */
+	public boolean append(JournaledBooking booking) {
+		byte[] payload = encode(booking);
+		this.appendLock.lock();
+		try {
+			int position = this.writePosition;
+			int end = position + RECORD_HEADER_SIZE + payload.length;
+			if (end > this.buffer.capacity()) {
+				return false;
+			}
+			this.buffer.putLong(position + 8, this.epoch);
+			this.buffer.put(position + RECORD_HEADER_SIZE, payload);
+			this.buffer.putInt(position + 4, checksum(position + 8, 8 + payload.length));
+			// Written last, a record without its length is ignored on recovery
+			this.buffer.putInt(position, payload.length);
+			force(position, end - position);
+			this.writePosition = end;
+			return true;
+		} finally {
+			this.appendLock.unlock();
+		}
+	}
+
+	/**
+	 * @return the bookings that have not been marked as flushed, in the order
+	 *         they were appended.
+	 */
+	public List<JournaledBooking> unflushed() {
+		List<JournaledBooking> bookings = new ArrayList<>();
+		int end = this.writePosition;
+		int position = this.flushedPosition;
+		while (position < end) {
+			List<JournaledBooking> record = new ArrayList<>(1);
+			position = read(position, record);
+			bookings.add(record.get(0).at(position));
+		}
+		return bookings;
+	}
+
+	/**
+	 * Record that every booking up to and including the given one is in the
+	 * database.
+	 */
+	public void markFlushed(JournaledBooking booking) {
+		this.buffer.putLong(FLUSHED_AT, booking.getEndOffset());
+		force(FLUSHED_AT, 8);
+		this.flushedPosition = (int) booking.getEndOffset();
+	}
+
+	public boolean isDrained() {
+		return this.flushedPosition == this.writePosition;
+	}
+
+	/**
+	 * Start over from the beginning of the file if every booking has been
+	 * flushed.
+	 *
+	 * @return true if the journal was reset.
+	 */
+	public boolean resetIfDrained() {
+		this.appendLock.lock();
+		try {
+			if (!isDrained() || this.writePosition == HEADER_SIZE) {
+				return false;
+			}
+			// The new epoch goes first: with the old one, the records after the flushed position would still be valid
+			this.epoch++;
+			this.buffer.putLong(EPOCH_AT, this.epoch);
+			this.buffer.putLong(FLUSHED_AT, HEADER_SIZE);
+			force(EPOCH_AT, 16);
+			this.flushedPosition = HEADER_SIZE;
+			this.writePosition = HEADER_SIZE;
+			return true;
+		} finally {
+			this.appendLock.unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.buffer.force();
+		this.channel.close();
+	}
+
+	/**
+	 * Read the record at the given position.
+	 *
+	 * @param into Receives the booking, may be null to only validate it.
+	 * @return the position after the record, or -1 if there is no valid record
+	 *         of the current epoch.
+	 */
+	private int read(int position, List<JournaledBooking> into) {
+		if (position + RECORD_HEADER_SIZE > this.buffer.capacity()) {
+			return -1;
+		}
+		int length = this.buffer.getInt(position);
+		int end = position + RECORD_HEADER_SIZE + length;
+		if (length <= 0 || end > this.buffer.capacity() || end < 0
+				|| this.buffer.getLong(position + 8) != this.epoch
+				|| this.buffer.getInt(position + 4) != checksum(position + 8, 8 + length)) {
+			return -1;
+		}
+		if (into != null) {
+			byte[] payload = new byte[length];
+			this.buffer.get(position + RECORD_HEADER_SIZE, payload);
+			into.add(decode(payload));
+		}
+		return end;
+	}
+
+	private int checksum(int position, int length) {
+		CRC32C crc = new CRC32C();
+		crc.update(this.buffer.slice(position, length));
+		return (int) crc.getValue();
+	}
+
+	private void force(int position, int length) {
+		if (this.sync) {
+			this.buffer.force(position, length);
+		}
+	}
+
+	private static byte[] encode(JournaledBooking booking) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeLong(booking.getAppointmentId());
+			out.writeUTF(booking.getOperatorId());
+			out.writeBoolean(booking.getCustomerName() != null);
+			if (booking.getCustomerName() != null) {
+				out.writeUTF(booking.getCustomerName());
+			}
+			out.writeLong(booking.getDate().toEpochDay());
+			out.writeInt(booking.getStartTime().toSecondOfDay());
+			out.writeInt(booking.getEndTime().toSecondOfDay());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static JournaledBooking decode(byte[] payload) {
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+			long appointmentId = in.readLong();
+			String operatorId = in.readUTF();
+			String customerName = in.readBoolean() ? in.readUTF() : null;
+			return new JournaledBooking(appointmentId, operatorId, customerName, LocalDate.ofEpochDay(in.readLong()),
+					LocalTime.ofSecondOfDay(in.readInt()), LocalTime.ofSecondOfDay(in.readInt()));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.carserviceagency.journal;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.carserviceagency.entities.Appointment;
+
+import lombok.Getter;
+
+/**
+ * A booking that was acknowledged from the {@link BookingJournal} and may not
+ * be in the database yet. It carries the ID assigned at acknowledgement, so
+ * replaying it more than once inserts it at most once.
+ */
+@Getter
+public class JournaledBooking {
+
+	private final long appointmentId;
+	private final String operatorId;
+	private final String customerName;
+	private final LocalDate date;
+	private final LocalTime startTime;
+	private final LocalTime endTime;
+
+	// Journal position just past this record, set when it is read back
+	private long endOffset;
+
+	public JournaledBooking(long appointmentId, String operatorId, String customerName, LocalDate date,
+			LocalTime startTime, LocalTime endTime) {
+		this.appointmentId = appointmentId;
+		this.operatorId = operatorId;
+		this.customerName = customerName;
+		this.date = date;
+		this.startTime = startTime;
+		this.endTime = endTime;
+	}
+
+	public static JournaledBooking of(Appointment appointment) {
+		return new JournaledBooking(appointment.getAppointmentId(), appointment.getOperator().getOperatorId(),
+				appointment.getCustomerName(), appointment.getDate(), appointment.getStartTime(),
+				appointment.getEndTime());
+	}
+
+	JournaledBooking at(long endOffset) {
+		this.endOffset = endOffset;
+		return this;
+	}
+}
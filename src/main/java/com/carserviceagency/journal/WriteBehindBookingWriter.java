@@ -0,0 +1,348 @@
+package com.carserviceagency.journal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.carserviceagency.cache.AppointmentCacheInvalidator;
+import com.carserviceagency.datasource.ReplicaLagGuard;
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.events.AppointmentOutbox;
+import com.carserviceagency.repository.ServiceOperatorRepo;
+import com.carserviceagency.scheduling.OperatorLoadCounters;
+import com.carserviceagency.scheduling.SlotOccupancyIndex;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Write-behind for single bookings. With {@code appointment.booking.write-behind.enabled}
+ * a booking that passed the {@link SlotOccupancyIndex} gets its ID from the
+ * appointment ID generator, is appended to the {@link BookingJournal} and
+ * acknowledged. A background flush inserts the journaled bookings in batches
+ * with JDBC and counts them on their operators, then evicts the caches they
+ * make stale.
+ * <p>
+ * On startup any bookings left in the journal by a crash are inserted before
+ * the index and the load counters are warmed, even if write-behind has since
+ * been switched off. Bookings already in the database are skipped by ID, so a
+ * journal replayed more than once inserts every booking once.
+ * <p>
+ * Until it is flushed, a booking is only visible to this node's index, and
+ * lists read from the database do not show it yet. Reading, rescheduling or
+ * cancelling it by ID flushes it first. Another node may take an overlapping
+ * slot with the same start time before the flush; the unique key then rejects
+ * the journaled booking, which is logged, counted and released.
+ */
+@Component
+@EnableConfigurationProperties(WriteBehindProperties.class)
+public class WriteBehindBookingWriter {
+
+	private static final Logger log = LoggerFactory.getLogger(WriteBehindBookingWriter.class);
+
+	private static final String INSERT = "INSERT INTO appointment (appointment_id, customer_name, date, start_time, "
+			+ "end_time, operator_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+	@Autowired
+	private WriteBehindProperties properties;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private ServiceOperatorRepo serviceOperatorRepo;
+
+	@Autowired
+	private AppointmentOutbox appointmentOutbox;
+
+	@Autowired
+	private AppointmentCacheInvalidator appointmentCacheInvalidator;
+
+	@Autowired
+	private ReplicaLagGuard replicaLagGuard;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	// Looked up when a booking is rejected: both are warmed after the journal has been replayed
+	@Autowired
+	private ObjectProvider<SlotOccupancyIndex> slotOccupancyIndex;
+
+	@Autowired
+	private ObjectProvider<OperatorLoadCounters> operatorLoadCounters;
+
+	// Not synchronized: a booking that finds the journal full flushes on its request thread
+	private final ReentrantLock flushLock = new ReentrantLock();
+
+	private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+	private BookingJournal journal;
+
+	private TransactionTemplate writeTransaction;
+
+	private SessionFactoryImplementor sessionFactory;
+
+	private BeforeExecutionGenerator idGenerator;
+
+	private Counter rejected;
+
+	@PostConstruct
+	public void init() throws IOException {
+		// Flushes also run inside read-only transactions that need a booking first
+		this.writeTransaction = new TransactionTemplate(this.transactionManager);
+		this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.sessionFactory = this.entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+		this.idGenerator = (BeforeExecutionGenerator) this.sessionFactory.getMappingMetamodel()
+				.getEntityDescriptor(Appointment.class).getGenerator();
+		this.rejected = Counter.builder("appointment.journal.rejected")
+				.description("Journaled bookings the database rejected when they were flushed")
+				.register(this.meterRegistry);
+		Gauge.builder("appointment.journal.pending", this.pending, Set::size)
+				.description("Acknowledged bookings not yet written to the database")
+				.register(this.meterRegistry);
+
+		if (!this.properties.isEnabled() && !Files.exists(this.properties.getJournal())) {
+			return;
+		}
+		BookingJournal opened = BookingJournal.open(this.properties.getJournal(),
+				(int) Math.min(this.properties.getJournalSize().toBytes(), Integer.MAX_VALUE),
+				this.properties.isSync());
+		List<JournaledBooking> unflushed = opened.unflushed();
+		if (!unflushed.isEmpty()) {
+			log.info("Replaying {} journaled bookings from {}", unflushed.size(), this.properties.getJournal());
+			flush(opened, false);
+		}
+		if (this.properties.isEnabled()) {
+			this.journal = opened;
+		} else {
+			opened.close();
+		}
+	}
+
+	public boolean isEnabled() {
+		return this.journal != null;
+	}
+
+	/**
+	 * Assign the appointment its ID and journal it. Once this returns the
+	 * booking survives a crash and will be inserted by a later flush.
+	 *
+	 * @throws IllegalStateException If the journal is full even after flushing.
+	 */
+	public void append(Appointment appointment) {
+		appointment.setAppointmentId(nextAppointmentId(appointment));
+		JournaledBooking booking = JournaledBooking.of(appointment);
+		// Pending before it is journaled, so a flush racing the append cannot leave it behind
+		this.pending.add(booking.getAppointmentId());
+		if (!this.journal.append(booking)) {
+			flush();
+			if (!this.journal.append(booking)) {
+				this.pending.remove(booking.getAppointmentId());
+				throw new IllegalStateException("The booking journal is full");
+			}
+		}
+	}
+
+	/**
+	 * Make sure a journaled appointment is in the database before it is read or
+	 * changed by ID. Does nothing if it is not pending.
+	 */
+	public void awaitFlushed(Long appointmentId) {
+		if (appointmentId != null && this.pending.contains(appointmentId)) {
+			flush();
+		}
+	}
+
+	/**
+	 * Flush the journal now if any booking is pending, for writes that need the
+	 * database to be complete.
+	 */
+	public void flushPending() {
+		if (!this.pending.isEmpty()) {
+			flush();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${appointment.booking.write-behind.flush-interval:PT0.1S}")
+	public void flushScheduled() {
+		if (!isEnabled()) {
+			return;
+		}
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			log.warn("Flushing the booking journal failed, retrying on the next run", e);
+		}
+	}
+
+	/**
+	 * Insert every journaled booking that is not in the database yet.
+	 */
+	public void flush() {
+		if (isEnabled()) {
+			flush(this.journal, true);
+		}
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		if (!isEnabled()) {
+			return;
+		}
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			log.warn("Flushing the booking journal on shutdown failed, it is replayed on the next start", e);
+		}
+		this.journal.close();
+	}
+
+	/**
+	 * @param live Whether the index and counters are warm and must drop rejected
+	 *             bookings.
+	 */
+	private void flush(BookingJournal from, boolean live) {
+		this.flushLock.lock();
+		try {
+			List<JournaledBooking> bookings = from.unflushed();
+			int batchSize = Math.max(1, this.properties.getBatchSize());
+			for (int start = 0; start < bookings.size(); start += batchSize) {
+				List<JournaledBooking> batch = bookings.subList(start, Math.min(start + batchSize, bookings.size()));
+				write(batch, live);
+				from.markFlushed(batch.get(batch.size() - 1));
+				batch.forEach(booking -> this.pending.remove(booking.getAppointmentId()));
+			}
+			from.resetIfDrained();
+		} finally {
+			this.flushLock.unlock();
+		}
+	}
+
+	private void write(List<JournaledBooking> batch, boolean live) {
+		List<JournaledBooking> written;
+		try {
+			written = insertCounted(batch);
+		} catch (DataIntegrityViolationException e) {
+			// Find the bookings the database rejects and keep the others
+			written = new ArrayList<>(batch.size());
+			for (JournaledBooking booking : batch) {
+				try {
+					written.addAll(insertCounted(List.of(booking)));
+				} catch (DataIntegrityViolationException rejection) {
+					reject(booking, rejection, live);
+				}
+			}
+		}
+
+		if (!written.isEmpty()) {
+			List<Long> appointmentIds = new ArrayList<>(written.size());
+			Set<String> customerNames = new LinkedHashSet<>();
+			for (JournaledBooking booking : written) {
+				appointmentIds.add(booking.getAppointmentId());
+				customerNames.add(booking.getCustomerName());
+			}
+			this.replicaLagGuard.recordWrite(Stream.concat(appointmentIds.stream().map(ReplicaLagGuard::appointment),
+					customerNames.stream().map(ReplicaLagGuard::customer)).toArray(String[]::new));
+			this.appointmentCacheInvalidator.appointmentsChanged(appointmentIds, customerNames);
+		}
+	}
+
+	/**
+	 * Insert the bookings that are not in the database yet, count them on their
+	 * operators and record their booking events in one transaction.
+	 *
+	 * @return the bookings that were inserted.
+	 */
+	private List<JournaledBooking> insertCounted(List<JournaledBooking> bookings) {
+		return this.writeTransaction.execute(status -> {
+			Set<Long> existing = findExisting(bookings);
+			List<JournaledBooking> missing = new ArrayList<>(bookings.size());
+			Map<String, Integer> bookingsByOperator = new HashMap<>();
+			for (JournaledBooking booking : bookings) {
+				if (!existing.contains(booking.getAppointmentId())) {
+					missing.add(booking);
+					bookingsByOperator.merge(booking.getOperatorId(), 1, Integer::sum);
+				}
+			}
+			if (missing.isEmpty()) {
+				return missing;
+			}
+			this.jdbcTemplate.batchUpdate(INSERT, missing, missing.size(), (statement, booking) -> {
+				statement.setLong(1, booking.getAppointmentId());
+				statement.setString(2, booking.getCustomerName());
+				statement.setObject(3, booking.getDate());
+				statement.setObject(4, booking.getStartTime());
+				statement.setObject(5, booking.getEndTime());
+				statement.setString(6, booking.getOperatorId());
+			});
+			bookingsByOperator.forEach(this.serviceOperatorRepo::adjustNumberOfAppointments);
+			this.appointmentOutbox.journaled(missing);
+			return missing;
+		});
+	}
+
+	private Set<Long> findExisting(List<JournaledBooking> bookings) {
+		String placeholders = String.join(", ", Collections.nCopies(bookings.size(), "?"));
+		Object[] appointmentIds = bookings.stream().map(JournaledBooking::getAppointmentId).toArray();
+		return new HashSet<>(this.jdbcTemplate.queryForList(
+				"SELECT appointment_id FROM appointment WHERE appointment_id IN (" + placeholders + ")", Long.class,
+				appointmentIds));
+	}
+
+	private void reject(JournaledBooking booking, DataIntegrityViolationException cause, boolean live) {
+		log.error("Journaled appointment {} of operator {} on {} at {} was rejected by the database and dropped: {}",
+				booking.getAppointmentId(), booking.getOperatorId(), booking.getDate(), booking.getStartTime(),
+				cause.getMostSpecificCause().getMessage());
+		this.rejected.increment();
+		if (live) {
+			this.slotOccupancyIndex.getObject().release(booking.getOperatorId(), booking.getDate(),
+					booking.getStartTime(), booking.getEndTime());
+			this.operatorLoadCounters.getObject().cancelled(booking.getOperatorId(), booking.getDate());
+		}
+	}
+
+	private long nextAppointmentId(Appointment appointment) {
+		try (StatelessSession session = this.sessionFactory.openStatelessSession()) {
+			return ((Number) this.idGenerator.generate((SharedSessionContractImplementor) session, appointment, null,
+					EventType.INSERT)).longValue();
+		}
+	}
+}
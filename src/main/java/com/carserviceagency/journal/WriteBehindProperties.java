@@ -0,0 +1,41 @@
+package com.carserviceagency.journal;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Write-behind booking, bound from {@code appointment.booking.write-behind.*}.
+ * The flush interval is read by the writer's schedule directly, from
+ * {@code appointment.booking.write-behind.flush-interval}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties("appointment.booking.write-behind")
+public class WriteBehindProperties {
+
+	/**
+	 * Acknowledge single bookings once they are journaled and insert them in the
+	 * background. Off by default.
+	 */
+	private boolean enabled;
+
+	private Path journal = Path.of("data", "booking.journal");
+
+	private DataSize journalSize = DataSize.ofMegabytes(16);
+
+	/**
+	 * The most journaled bookings inserted per transaction.
+	 */
+	private int batchSize = 200;
+
+	/**
+	 * Force every append to disk, so acknowledged bookings also survive a crash
+	 * of the machine rather than just of the process.
+	 */
+	private boolean sync;
+}
@@ -0,0 +1,46 @@
+package com.carserviceagency.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.payload.requests.AppointmentRequest;
+import com.carserviceagency.payload.response.AppointmentResponse;
+
+/**
+ * Plain field-by-field mapping between appointments and their payloads,
+ * replacing the reflective ModelMapper on the request paths.
+ */
+@Component
+public class AppointmentMapper {
+
+	/**
+	 * Map a booking request to a new, unsaved appointment. The ID, end time and
+	 * operator are left for the caller to fill in.
+	 */
+	public Appointment toEntity(AppointmentRequest appointmentRequest) {
+		Appointment appointment = new Appointment();
+		appointment.setCustomerName(appointmentRequest.getCustomerName());
+		appointment.setDate(appointmentRequest.getDate());
+		appointment.setStartTime(appointmentRequest.getStartTime());
+		return appointment;
+	}
+
+	public AppointmentResponse toResponse(Appointment appointment) {
+		ServiceOperator operator = appointment.getOperator();
+		return new AppointmentResponse(appointment.getAppointmentId(), appointment.getCustomerName(),
+				operator == null ? null : operator.getOperatorId(), operator == null ? null : operator.getOperatorName(),
+				appointment.getDate(), appointment.getStartTime(), appointment.getEndTime());
+	}
+
+	public List<AppointmentResponse> toResponses(List<Appointment> appointments) {
+		List<AppointmentResponse> appointmentResponses = new ArrayList<>(appointments.size());
+		for (Appointment appointment : appointments) {
+			appointmentResponses.add(toResponse(appointment));
+		}
+		return appointmentResponses;
+	}
+}
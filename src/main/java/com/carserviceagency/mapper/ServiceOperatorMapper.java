@@ -0,0 +1,17 @@
+package com.carserviceagency.mapper;
+
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.payload.response.ServiceOperatorResponse;
+
+/**
+ * Plain field-by-field mapping from operators to their payload.
+ */
+@Component
+public class ServiceOperatorMapper {
+
+	public ServiceOperatorResponse toResponse(ServiceOperator serviceOperator) {
+		return new ServiceOperatorResponse(serviceOperator.getOperatorId(), serviceOperator.getOperatorName());
+	}
+}
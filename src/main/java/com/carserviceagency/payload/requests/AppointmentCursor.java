@@ -0,0 +1,46 @@
+package com.carserviceagency.payload.requests;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.carserviceagency.exceptions.AppointmentException;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Position in a customer's appointment history, ordered by date, start time
+ * and appointment ID. Clients receive it as an opaque URL-safe token and
+ * send it back to fetch the page after it.
+ */
+@Getter
+@AllArgsConstructor
+public class AppointmentCursor {
+	private LocalDate date;
+	private LocalTime startTime;
+	private Long appointmentId;
+
+	public String encode() {
+		String position = this.date + "|" + this.startTime + "|" + this.appointmentId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @throws AppointmentException If the token was not produced by {@link #encode()}.
+	 */
+	public static AppointmentCursor decode(String token) throws AppointmentException {
+		try {
+			String[] position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+			if (position.length != 3) {
+				throw new IllegalArgumentException(token);
+			}
+			return new AppointmentCursor(LocalDate.parse(position[0]), LocalTime.parse(position[1]),
+					Long.valueOf(position[2]));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new AppointmentException("Invalid cursor: " + token);
+		}
+	}
+}
@@ -18,4 +18,11 @@ public class AppointmentRequest {
 	private LocalDate date;
 	private LocalTime startTime;
 	private String operatorId;
+	// Length of the job in minutes, the configured default for new bookings if not set
+	private Integer durationMinutes;
+
+	public AppointmentRequest(Long appointmentId, String customerName, LocalDate date, LocalTime startTime,
+			String operatorId) {
+		this(appointmentId, customerName, date, startTime, operatorId, null);
+	}
 }
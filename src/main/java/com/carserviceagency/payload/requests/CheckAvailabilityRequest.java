@@ -2,16 +2,22 @@ package com.carserviceagency.payload.requests;
 
 import java.time.LocalDate;
 
+import org.springframework.format.annotation.DateTimeFormat;
+
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Getter
+@Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class CheckAvailabilityRequest {
 
+	 	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
 	 	private LocalDate date;
+	 	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+	 	private LocalDate toDate;
 	    private String operatorId;
 }
@@ -0,0 +1,21 @@
+package com.carserviceagency.payload.response;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEventPageResponse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<AppointmentEventResponse> events;
+	private String nextOffset;
+}
@@ -0,0 +1,36 @@
+package com.carserviceagency.payload.response;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.carserviceagency.entities.AppointmentEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentEventResponse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String offset;
+	private Long eventId;
+	private AppointmentEvent.Type type;
+	private Instant occurredAt;
+	private Long appointmentId;
+	private String operatorId;
+	private String customerName;
+	private LocalDate date;
+	private LocalTime startTime;
+	private LocalTime endTime;
+	private LocalDate previousDate;
+	private LocalTime previousStartTime;
+	private LocalTime previousEndTime;
+}
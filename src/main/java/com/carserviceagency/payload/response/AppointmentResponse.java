@@ -1,5 +1,6 @@
 package com.carserviceagency.payload.response;
 
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
@@ -12,7 +13,10 @@ import lombok.Setter;
 @Getter
 @AllArgsConstructor
 @NoArgsConstructor
-public class AppointmentResponse {
+public class AppointmentResponse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
 	private Long appointmentId;
 	private String customerName;
 	private String operatorId;
@@ -0,0 +1,25 @@
+package com.carserviceagency.payload.response;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AppointmentSummaryResponse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long appointmentId;
+	private String customerName;
+	private LocalDate date;
+	private LocalTime startTime;
+	private LocalTime endTime;
+}
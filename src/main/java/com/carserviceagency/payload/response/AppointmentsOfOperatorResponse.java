@@ -1,9 +1,8 @@
 package com.carserviceagency.payload.response;
 
+import java.io.Serializable;
 import java.util.List;
 
-import com.carserviceagency.entities.Appointment;
-
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -13,11 +12,14 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-public class AppointmentsOfOperatorResponse {
+public class AppointmentsOfOperatorResponse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
 
 	private String operatorId;
 	private int noOfAppointments;
 	private String operatorName;
-	private List<Appointment> appointments;
+	private List<AppointmentSummaryResponse> appointments;
 
 }
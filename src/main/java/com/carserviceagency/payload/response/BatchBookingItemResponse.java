@@ -0,0 +1,17 @@
+package com.carserviceagency.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingItemResponse {
+	private int index;
+	private boolean booked;
+	private AppointmentResponse appointment;
+	private String message;
+}
@@ -0,0 +1,18 @@
+package com.carserviceagency.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBookingResponse {
+	private int booked;
+	private int failed;
+	private List<BatchBookingItemResponse> results;
+}
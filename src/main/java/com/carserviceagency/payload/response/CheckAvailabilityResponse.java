@@ -1,9 +1,21 @@
 package com.carserviceagency.payload.response;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import com.carserviceagency.entities.AvailabilitySlot;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
 public class CheckAvailabilityResponse {
+	private String operatorId;
+	private LocalDate date;
 	private List<AvailabilitySlot> slots;
 }
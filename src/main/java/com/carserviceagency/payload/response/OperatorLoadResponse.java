@@ -0,0 +1,20 @@
+package com.carserviceagency.payload.response;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OperatorLoadResponse {
+
+	private String operatorId;
+	private long numberOfAppointments;
+	private LocalDate date;
+	private long appointmentsOnDate;
+}
@@ -0,0 +1,157 @@
+package com.carserviceagency.report;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.carserviceagency.datasource.ReplicaLagGuard;
+import com.carserviceagency.payload.response.AppointmentSummaryResponse;
+import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.repository.OperatorAppointmentRow;
+import com.carserviceagency.repository.ServiceOperatorRepo;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Builds the operators-with-appointments report. Operators are split into
+ * contiguous partitions of their sorted IDs and each partition is queried in
+ * its own read-only transaction. At most {@code appointment.report.parallelism}
+ * partitions run at once, so a report never holds more than that many pooled
+ * connections and booking traffic keeps the rest of the pool. Partitions are
+ * merged back in operator order.
+ */
+@Component
+public class OperatorReportEngine {
+
+	@Autowired
+	private AppointmentRepo appointmentRepo;
+
+	@Autowired
+	private ServiceOperatorRepo serviceOperatorRepo;
+
+	@Autowired
+	private ReplicaLagGuard replicaLagGuard;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private Environment environment;
+
+	@Value("${appointment.report.parallelism:4}")
+	private int parallelism;
+
+	@Value("${appointment.report.partition-size:200}")
+	private int partitionSize;
+
+	private SimpleAsyncTaskExecutor executor;
+
+	private TransactionTemplate readOnlyTransaction;
+
+	@PostConstruct
+	public void init() {
+		this.parallelism = Math.max(1, this.parallelism);
+		this.partitionSize = Math.max(1, this.partitionSize);
+		// Submitting blocks once the limit is reached, which caps the connections the report uses
+		this.executor = new SimpleAsyncTaskExecutor("operator-report-");
+		this.executor.setConcurrencyLimit(this.parallelism);
+		this.executor.setVirtualThreads(Threading.VIRTUAL.isActive(this.environment));
+		this.readOnlyTransaction = new TransactionTemplate(this.transactionManager);
+		this.readOnlyTransaction.setReadOnly(true);
+	}
+
+	/**
+	 * Build the report for every operator.
+	 *
+	 * @return One {@link AppointmentsOfOperatorResponse} per operator, in
+	 *         operator ID order.
+	 */
+	public List<AppointmentsOfOperatorResponse> buildReport() {
+		List<List<String>> partitions = partitionOperators();
+		List<AppointmentsOfOperatorResponse> report = new ArrayList<>();
+		if (partitions.size() <= 1 || this.parallelism == 1) {
+			for (List<String> partition : partitions) {
+				groupByOperator(loadPartition(partition).iterator(), report::add);
+			}
+			return report;
+		}
+
+		List<CompletableFuture<List<OperatorAppointmentRow>>> loads = new ArrayList<>(partitions.size());
+		for (List<String> partition : partitions) {
+			loads.add(CompletableFuture.supplyAsync(() -> loadPartition(partition), this.executor));
+		}
+		try {
+			for (CompletableFuture<List<OperatorAppointmentRow>> load : loads) {
+				groupByOperator(load.join().iterator(), report::add);
+			}
+		} catch (CompletionException e) {
+			loads.forEach(load -> load.cancel(false));
+			if (e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw e;
+		}
+		return report;
+	}
+
+	/**
+	 * Fold report rows, ordered by operator ID, into one response per operator.
+	 *
+	 * @param rows     The report rows, with the rows of each operator adjacent.
+	 * @param consumer Receives one {@link AppointmentsOfOperatorResponse} per
+	 *                 operator.
+	 */
+	public static void groupByOperator(Iterator<OperatorAppointmentRow> rows,
+			Consumer<AppointmentsOfOperatorResponse> consumer) {
+		AppointmentsOfOperatorResponse current = null;
+		while (rows.hasNext()) {
+			OperatorAppointmentRow row = rows.next();
+			if (current == null || !current.getOperatorId().equals(row.getOperatorId())) {
+				if (current != null) {
+					consumer.accept(current);
+				}
+				current = new AppointmentsOfOperatorResponse(row.getOperatorId(), 0, row.getOperatorName(),
+						new ArrayList<>());
+			}
+			if (row.getAppointmentId() != null) {
+				current.getAppointments().add(new AppointmentSummaryResponse(row.getAppointmentId(),
+						row.getCustomerName(), row.getDate(), row.getStartTime(), row.getEndTime()));
+				current.setNoOfAppointments(current.getNoOfAppointments() + 1);
+			}
+		}
+		if (current != null) {
+			consumer.accept(current);
+		}
+	}
+
+	private List<List<String>> partitionOperators() {
+		List<String> operatorIds = new ArrayList<>(this.serviceOperatorRepo.findAllOperatorIds());
+		Collections.sort(operatorIds);
+		List<List<String>> partitions = new ArrayList<>();
+		for (int from = 0; from < operatorIds.size(); from += this.partitionSize) {
+			partitions.add(operatorIds.subList(from, Math.min(from + this.partitionSize, operatorIds.size())));
+		}
+		return partitions;
+	}
+
+	private List<OperatorAppointmentRow> loadPartition(List<String> operatorIds) {
+		return this.readOnlyTransaction.execute(status -> {
+			this.replicaLagGuard.readFromReplica(ReplicaLagGuard.ALL);
+			return this.appointmentRepo.findOperatorAppointmentRowsOf(operatorIds);
+		});
+	}
+}
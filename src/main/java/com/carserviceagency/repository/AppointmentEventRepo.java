@@ -0,0 +1,22 @@
+package com.carserviceagency.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.carserviceagency.entities.AppointmentEvent;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface AppointmentEventRepo extends JpaRepository<AppointmentEvent, Long> {
+
+	// Locked so relays on other nodes wait for this batch instead of publishing it again
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT e FROM AppointmentEvent e ORDER BY e.sequence, e.eventId")
+	List<AppointmentEvent> findOldestForRelay(Limit limit);
+}
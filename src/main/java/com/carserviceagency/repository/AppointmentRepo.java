@@ -1,22 +1,70 @@
 package com.carserviceagency.repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.carserviceagency.entities.Appointment;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface AppointmentRepo extends JpaRepository<Appointment, Long> {
 	
 	@Query("SELECT a FROM Appointment a WHERE a.operator.operatorId = :operatorId")
 	List<Appointment> findAllAppointments(@Param("operatorId") String operatorId);
 	List<Appointment> findByCustomerName(String customerName);
+	@Query("SELECT a.operator.operatorId, a.date, a.startTime, a.endTime FROM Appointment a")
+	List<Object[]> findAllSlots();
+	@Query("SELECT a.operator.operatorId, a.date, COUNT(a) FROM Appointment a GROUP BY a.operator.operatorId, a.date")
+	List<Object[]> countByOperatorAndDate();
+	// Unlike deleteById this reports whether the row was still there, and at the version that was read
+	@Modifying
+	@Query("DELETE FROM Appointment a WHERE a.appointmentId = :appointmentId AND a.version = :version")
+	int deleteAppointment(@Param("appointmentId") Long appointmentId, @Param("version") Long version);
+
+	String CUSTOMER_PAGE = "SELECT a FROM Appointment a JOIN FETCH a.operator WHERE a.customerName = :customerName ";
+	String CUSTOMER_PAGE_ORDER = " ORDER BY a.date, a.startTime, a.appointmentId";
+
+	// Keyset pages walk the (customerName, date, startTime) index instead of skipping rows with OFFSET
+	@Query(CUSTOMER_PAGE + CUSTOMER_PAGE_ORDER)
+	List<Appointment> findFirstPageOfCustomer(@Param("customerName") String customerName, Limit limit);
+
+	@Query(CUSTOMER_PAGE + "AND (a.date > :date OR (a.date = :date AND (a.startTime > :startTime "
+			+ "OR (a.startTime = :startTime AND a.appointmentId > :appointmentId))))" + CUSTOMER_PAGE_ORDER)
+	List<Appointment> findPageOfCustomerAfter(@Param("customerName") String customerName,
+			@Param("date") LocalDate date, @Param("startTime") LocalTime startTime,
+			@Param("appointmentId") Long appointmentId, Limit limit);
+
+	String OPERATOR_APPOINTMENT_JOIN = "SELECT new com.carserviceagency.repository.OperatorAppointmentRow("
+			+ "o.operatorId, o.operatorName, a.appointmentId, a.customerName, a.date, a.startTime, a.endTime) "
+			+ "FROM ServiceOperator o LEFT JOIN Appointment a ON a.operator = o ";
+	String OPERATOR_APPOINTMENT_ORDER = "ORDER BY o.operatorId, a.date, a.startTime";
+	String OPERATOR_APPOINTMENT_ROWS = OPERATOR_APPOINTMENT_JOIN + OPERATOR_APPOINTMENT_ORDER;
+
+	@Query(OPERATOR_APPOINTMENT_ROWS)
+	List<OperatorAppointmentRow> findOperatorAppointmentRows();
+
+	// One partition of the operator report
+	@Query(OPERATOR_APPOINTMENT_JOIN + "WHERE o.operatorId IN :operatorIds " + OPERATOR_APPOINTMENT_ORDER)
+	List<OperatorAppointmentRow> findOperatorAppointmentRowsOf(@Param("operatorIds") Collection<String> operatorIds);
+
+	// Integer.MIN_VALUE makes the MySQL driver stream rows instead of buffering the result set
+	@Query(OPERATOR_APPOINTMENT_ROWS)
+	@QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE))
+	Stream<OperatorAppointmentRow> streamOperatorAppointmentRows();
 //	List<Appointment> findByOperatorIdAndStartDate(String operatorId, LocalDate startDate);
 	 @Query("SELECT a FROM Appointment a WHERE a.operator.operatorId = :operatorId AND a.date = :startDate")
 	    List<Appointment> findByOperatorIdAndStartDate(@Param("operatorId") String operatorId, @Param("startDate") LocalDate startDate);
@@ -0,0 +1,34 @@
+package com.carserviceagency.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Gives appointments stored before the version column existed a version of 0.
+ * Schema update adds the column as NULL, and Spring Data takes an entity with
+ * a null version for a new one, so saving such an appointment would try to
+ * insert it again instead of updating it.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class AppointmentVersionBackfill {
+
+	private static final Logger log = LoggerFactory.getLogger(AppointmentVersionBackfill.class);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@PostConstruct
+	public void backfill() {
+		int updated = this.jdbcTemplate.update("UPDATE appointment SET version = 0 WHERE version IS NULL");
+		if (updated > 0) {
+			log.info("Set the version of {} appointments stored without one", updated);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.carserviceagency.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.entities.IdGenerators;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Hands out the sequence numbers that order the appointment events of each
+ * operator, from one row per operator in the {@link IdGenerators#TABLE} table.
+ * The row stays locked until the caller's transaction ends, so the events of
+ * an operator are numbered in the order their changes commit, whichever node
+ * makes them.
+ * <p>
+ * A sequence number is never lower than the current time in microseconds,
+ * which keeps the numbers of different operators roughly in time order, so
+ * ordering the outbox by sequence number relays it about oldest first.
+ */
+@Repository
+public class EventSequenceRepository {
+
+	private static final String ROW_PREFIX = AppointmentEvent.ID_GENERATOR + ":";
+
+	private static final String SELECT = "SELECT " + IdGenerators.VALUE_COLUMN + " FROM " + IdGenerators.TABLE
+			+ " WHERE " + IdGenerators.NAME_COLUMN + " = ?";
+
+	private static final String ADVANCE = "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN
+			+ " = GREATEST(" + IdGenerators.VALUE_COLUMN + ", ?) + ? WHERE " + IdGenerators.NAME_COLUMN + " = ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private TransactionTemplate createTransaction;
+
+	@PostConstruct
+	public void init() {
+		this.createTransaction = new TransactionTemplate(this.transactionManager);
+		this.createTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+	}
+
+	/**
+	 * Reserve the next sequence numbers of an operator's events. Operators whose
+	 * numbers are reserved in the same transaction must be passed in the same
+	 * order by every caller, so that two transactions cannot wait for each
+	 * other's rows.
+	 *
+	 * @param operatorId The ID of the operator.
+	 * @param count      The number of sequence numbers to reserve.
+	 * @return The first reserved number, the others follow it.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public long reserve(String operatorId, int count) {
+		String row = ROW_PREFIX + operatorId;
+		// A plain read takes no gap lock, which would block the row from being created below
+		if (this.jdbcTemplate.query(SELECT, rs -> rs.next() ? Boolean.TRUE : null, row) == null) {
+			this.createTransaction.executeWithoutResult(status -> create(row));
+		}
+		this.jdbcTemplate.update(ADVANCE, System.currentTimeMillis() * 1000, count, row);
+		return this.jdbcTemplate.queryForObject(SELECT, Long.class, row) - count;
+	}
+
+	private void create(String row) {
+		try {
+			this.jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+					+ IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)", row, 1L);
+		} catch (DuplicateKeyException e) {
+			// Created concurrently by another transaction
+		}
+	}
+}
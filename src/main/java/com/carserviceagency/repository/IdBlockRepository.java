@@ -0,0 +1,51 @@
+package com.carserviceagency.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.carserviceagency.entities.IdGenerators;
+
+/**
+ * Leases blocks of IDs from rows of the {@link IdGenerators#TABLE} table that
+ * are managed by the application rather than by Hibernate. Such a row holds the
+ * first ID of the next block that has not been leased yet.
+ */
+@Repository
+public class IdBlockRepository {
+
+	private static final String SELECT_FOR_UPDATE = "SELECT " + IdGenerators.VALUE_COLUMN + " FROM "
+			+ IdGenerators.TABLE + " WHERE " + IdGenerators.NAME_COLUMN + " = ? FOR UPDATE";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Lease the next block of IDs of a generator. Runs in its own transaction so
+	 * the row lock is held only for the lease, not for the caller's work.
+	 *
+	 * @param generator The generator's row in the generator table.
+	 * @param blockSize The number of IDs to lease.
+	 * @return The first ID of the leased block.
+	 */
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public long leaseBlock(String generator, int blockSize) {
+		Long first = this.jdbcTemplate.query(SELECT_FOR_UPDATE, rs -> rs.next() ? rs.getLong(1) : null, generator);
+		if (first == null) {
+			try {
+				this.jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+						+ IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)", generator, 1L + blockSize);
+				return 1L;
+			} catch (DuplicateKeyException e) {
+				// Created concurrently by another node
+				first = this.jdbcTemplate.queryForObject(SELECT_FOR_UPDATE, Long.class, generator);
+			}
+		}
+		this.jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? WHERE "
+				+ IdGenerators.NAME_COLUMN + " = ?", first + blockSize, generator);
+		return first;
+	}
+}
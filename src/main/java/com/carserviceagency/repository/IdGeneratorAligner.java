@@ -0,0 +1,71 @@
+package com.carserviceagency.repository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.entities.IdGenerators;
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.ids.OperatorIdAllocator;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Moves the rows of the {@link IdGenerators#TABLE} table past the highest ID
+ * already in use, so tables filled before their IDs came from that table keep
+ * working. The counter only ever moves forward, so nodes starting at the same
+ * time cannot hand out an ID twice.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorAligner {
+
+	private static final Logger log = LoggerFactory.getLogger(IdGeneratorAligner.class);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private ServiceOperatorRepo serviceOperatorRepo;
+
+	@PostConstruct
+	public void alignAll() {
+		Long maxAppointmentId = this.jdbcTemplate.queryForObject("SELECT MAX(appointment_id) FROM appointment",
+				Long.class);
+		if (maxAppointmentId != null) {
+			// The pooled optimizer hands out the block ending at the stored value, so keep a whole block above the highest ID
+			align(Appointment.ID_GENERATOR, maxAppointmentId, maxAppointmentId + IdGenerators.ALLOCATION_SIZE);
+		}
+
+		// Operator IDs are strings, so their highest number cannot be found by MAX()
+		long maxOperatorId = this.serviceOperatorRepo.findAllOperatorIds().stream()
+				.mapToLong(OperatorIdAllocator::parse).max().orElse(-1);
+		if (maxOperatorId >= 0) {
+			align(ServiceOperator.ID_GENERATOR, maxOperatorId, maxOperatorId + 1);
+		}
+	}
+
+	private void align(String generator, long maxId, long nextValue) {
+		if (moveForward(generator, nextValue) == 0) {
+			try {
+				this.jdbcTemplate.update("INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", "
+						+ IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)", generator, nextValue);
+			} catch (DuplicateKeyException e) {
+				// Created concurrently by another node or by Hibernate itself
+				moveForward(generator, nextValue);
+			}
+		}
+		log.info("ID generator '{}' aligned above existing ID {}", generator, maxId);
+	}
+
+	private int moveForward(String generator, long nextValue) {
+		return this.jdbcTemplate.update("UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN
+				+ " = GREATEST(" + IdGenerators.VALUE_COLUMN + ", ?) WHERE " + IdGenerators.NAME_COLUMN + " = ?",
+				nextValue, generator);
+	}
+}
@@ -0,0 +1,23 @@
+package com.carserviceagency.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One row of the operator report query: an operator joined with one of its
+ * appointments, or with nulls when the operator has none.
+ */
+@Getter
+@AllArgsConstructor
+public class OperatorAppointmentRow {
+	private String operatorId;
+	private String operatorName;
+	private Long appointmentId;
+	private String customerName;
+	private LocalDate date;
+	private LocalTime startTime;
+	private LocalTime endTime;
+}
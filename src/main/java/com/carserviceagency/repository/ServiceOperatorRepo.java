@@ -3,7 +3,10 @@ package com.carserviceagency.repository;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.carserviceagency.entities.ServiceOperator;
@@ -11,4 +14,18 @@ import com.carserviceagency.entities.ServiceOperator;
 public interface ServiceOperatorRepo extends JpaRepository<ServiceOperator, String> {
 
 	ServiceOperator findByOperatorId(String operatorId);
+	@Query("SELECT o.operatorId FROM ServiceOperator o")
+	List<String> findAllOperatorIds();
+
+	@Modifying
+	@Query("UPDATE ServiceOperator o SET o.numberOfAppointments = o.numberOfAppointments + :delta "
+			+ "WHERE o.operatorId = :operatorId")
+	int adjustNumberOfAppointments(@Param("operatorId") String operatorId, @Param("delta") int delta);
+
+	// Recount every operator from the appointment table, returns the number of operators that had drifted
+	@Modifying
+	@Query("UPDATE ServiceOperator o SET o.numberOfAppointments = "
+			+ "(SELECT COUNT(a) FROM Appointment a WHERE a.operator = o) "
+			+ "WHERE o.numberOfAppointments <> (SELECT COUNT(a) FROM Appointment a WHERE a.operator = o)")
+	int reconcileNumberOfAppointments();
 }
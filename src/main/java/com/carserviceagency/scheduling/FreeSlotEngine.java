@@ -0,0 +1,66 @@
+package com.carserviceagency.scheduling;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.entities.AvailabilitySlot;
+import com.carserviceagency.scheduling.SlotOccupancyIndex.DaySchedule;
+
+/**
+ * Answers availability queries straight from the {@link SlotOccupancyIndex}.
+ * The sorted booking ranges are maintained incrementally on every write, so a
+ * free range lookup is one pass over the gaps between the bookings of a day
+ * and never touches the appointments table. A range ending at midnight is
+ * reported with an end time of {@code 00:00}, the same way appointments
+ * ending at midnight are stored.
+ */
+@Component
+public class FreeSlotEngine {
+
+	@Autowired
+	private SlotOccupancyIndex slotOccupancyIndex;
+
+	@Value("${appointment.availability.opening-hour:0}")
+	private int openingHour;
+
+	@Value("${appointment.availability.closing-hour:24}")
+	private int closingHour;
+
+	/**
+	 * Compute the merged free time ranges of an operator on a date, within the
+	 * configured opening hours.
+	 *
+	 * @param operatorId The ID of the operator.
+	 * @param date       The date to check.
+	 * @return The free ranges in chronological order.
+	 */
+	public List<AvailabilitySlot> freeSlots(String operatorId, LocalDate date) {
+		int open = Math.max(0, Math.min(this.openingHour * 60, SlotOccupancyIndex.MINUTES_PER_DAY));
+		int close = Math.max(open, Math.min(this.closingHour * 60, SlotOccupancyIndex.MINUTES_PER_DAY));
+		DaySchedule schedule = this.slotOccupancyIndex.scheduleOf(operatorId, date);
+		List<AvailabilitySlot> slots = new ArrayList<>(4);
+		int free = open;
+		for (int i = 0; i < schedule.size() && free < close; i++) {
+			int start = Math.min(schedule.startAt(i), close);
+			if (start > free) {
+				slots.add(new AvailabilitySlot(toTime(free), toTime(start)));
+			}
+			free = Math.max(free, schedule.endAt(i));
+		}
+		if (free < close) {
+			slots.add(new AvailabilitySlot(toTime(free), toTime(close)));
+		}
+		return slots;
+	}
+
+	private static LocalTime toTime(int minute) {
+		return minute >= SlotOccupancyIndex.MINUTES_PER_DAY ? LocalTime.MIDNIGHT
+				: LocalTime.of(minute / 60, minute % 60);
+	}
+}
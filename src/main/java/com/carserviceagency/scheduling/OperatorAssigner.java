@@ -0,0 +1,130 @@
+package com.carserviceagency.scheduling;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntBinaryOperator;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Orders operators for "any operator" bookings, least loaded first. The load
+ * of an operator is its number of appointments on the requested date, then
+ * its number of appointments overall, both read from the
+ * {@link OperatorLoadCounters}. Operators with equal load are ordered from a
+ * starting point that rotates with every call, so ties are spread evenly
+ * instead of always favouring the lowest operator ID.
+ * <p>
+ * The order is only a preference. Loads are snapshotted when the candidates
+ * are requested and may change before a booking lands, so callers must still
+ * claim the slot through the {@link SlotOccupancyIndex} and move on to the
+ * next candidate if that fails.
+ */
+@Component
+public class OperatorAssigner {
+
+	@Autowired
+	private SlotOccupancyIndex slotOccupancyIndex;
+
+	@Autowired
+	private OperatorLoadCounters operatorLoadCounters;
+
+	private final AtomicInteger nextTieBreak = new AtomicInteger();
+
+	/**
+	 * @return the IDs of all operators, least loaded on the date first. The
+	 *         operators are ordered lazily from a heap, so a caller that stops
+	 *         at the first free operator pays O(n + k log n) for k candidates.
+	 */
+	public Iterator<String> candidatesFor(LocalDate date) {
+		List<String> operatorIds = new ArrayList<>(this.slotOccupancyIndex.operatorIds());
+		int count = operatorIds.size();
+		if (count == 0) {
+			return Collections.emptyIterator();
+		}
+		long[] dayLoads = new long[count];
+		long[] totalLoads = new long[count];
+		for (int i = 0; i < count; i++) {
+			dayLoads[i] = this.operatorLoadCounters.appointmentsOf(operatorIds.get(i), date);
+			totalLoads[i] = this.operatorLoadCounters.appointmentsOf(operatorIds.get(i));
+		}
+		int tieBreak = Math.floorMod(this.nextTieBreak.getAndIncrement(), count);
+		return new LoadHeap(operatorIds, (a, b) -> {
+			int order = Long.compare(dayLoads[a], dayLoads[b]);
+			if (order == 0) {
+				order = Long.compare(totalLoads[a], totalLoads[b]);
+			}
+			return order != 0 ? order
+					: Integer.compare(Math.floorMod(a - tieBreak, count), Math.floorMod(b - tieBreak, count));
+		});
+	}
+
+	/**
+	 * A binary min-heap of operator indexes, built bottom up in O(n) and emptied
+	 * one operator at a time. {@link java.util.PriorityQueue} has no way to
+	 * build a heap from a collection with a comparator other than one add at a
+	 * time, which would cost O(n log n) up front.
+	 */
+	private static final class LoadHeap implements Iterator<String> {
+
+		private final List<String> operatorIds;
+
+		private final IntBinaryOperator comparator;
+
+		private final int[] heap;
+
+		private int size;
+
+		private LoadHeap(List<String> operatorIds, IntBinaryOperator comparator) {
+			this.operatorIds = operatorIds;
+			this.comparator = comparator;
+			this.size = operatorIds.size();
+			this.heap = new int[this.size];
+			for (int i = 0; i < this.size; i++) {
+				this.heap[i] = i;
+			}
+			for (int i = this.size / 2 - 1; i >= 0; i--) {
+				siftDown(i);
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return this.size > 0;
+		}
+
+		@Override
+		public String next() {
+			if (this.size == 0) {
+				throw new NoSuchElementException();
+			}
+			int next = this.heap[0];
+			this.heap[0] = this.heap[--this.size];
+			siftDown(0);
+			return this.operatorIds.get(next);
+		}
+
+		private void siftDown(int position) {
+			int index = this.heap[position];
+			int half = this.size / 2;
+			while (position < half) {
+				int child = 2 * position + 1;
+				if (child + 1 < this.size
+						&& this.comparator.applyAsInt(this.heap[child + 1], this.heap[child]) < 0) {
+					child++;
+				}
+				if (this.comparator.applyAsInt(index, this.heap[child]) <= 0) {
+					break;
+				}
+				this.heap[position] = this.heap[child];
+				position = child;
+			}
+			this.heap[position] = index;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.carserviceagency.scheduling;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.carserviceagency.journal.WriteBehindBookingWriter;
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.repository.ServiceOperatorRepo;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory appointment counters per operator and per operator and date. Like
+ * the {@link SlotOccupancyIndex} they are warmed from the database on startup
+ * and updated after every booking, reschedule and cancellation, so operator
+ * load is read in O(operators) without touching the appointment table.
+ * {@link LongAdder}s keep concurrent bookings from contending on one value.
+ * <p>
+ * The counters only see the writes of this node. A reconciliation pass
+ * recounts the appointment table on a fixed delay, repairs the persisted
+ * {@code numberOfAppointments} column and corrects any drift here. A write
+ * that races a pass may leave a transient error, which the next pass repairs.
+ */
+@Component
+// Warmed after the bookings the journal replays on startup are in the table
+@DependsOn("writeBehindBookingWriter")
+public class OperatorLoadCounters {
+
+	private static final Logger log = LoggerFactory.getLogger(OperatorLoadCounters.class);
+
+	private final ConcurrentMap<String, LongAdder> totals = new ConcurrentHashMap<>();
+
+	private final ConcurrentMap<String, ConcurrentMap<LocalDate, LongAdder>> daily = new ConcurrentHashMap<>();
+
+	@Autowired
+	private AppointmentRepo appointmentRepo;
+
+	@Autowired
+	private ServiceOperatorRepo serviceOperatorRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private WriteBehindBookingWriter writeBehindBookingWriter;
+
+	@PostConstruct
+	public void warmUp() {
+		reload();
+	}
+
+	/**
+	 * Count a new appointment of the operator on the date.
+	 */
+	public void booked(String operatorId, LocalDate date) {
+		totalOf(operatorId).increment();
+		dayOf(operatorId, date).increment();
+	}
+
+	/**
+	 * Count a cancelled appointment of the operator on the date.
+	 */
+	public void cancelled(String operatorId, LocalDate date) {
+		totalOf(operatorId).decrement();
+		dayOf(operatorId, date).decrement();
+	}
+
+	/**
+	 * Move an appointment of the operator from one date to another.
+	 */
+	public void moved(String operatorId, LocalDate oldDate, LocalDate newDate) {
+		if (!oldDate.equals(newDate)) {
+			dayOf(operatorId, oldDate).decrement();
+			dayOf(operatorId, newDate).increment();
+		}
+	}
+
+	/**
+	 * Forget a deleted operator and all of its counters.
+	 */
+	public void removeOperator(String operatorId) {
+		this.totals.remove(operatorId);
+		this.daily.remove(operatorId);
+	}
+
+	/**
+	 * @return the number of appointments of the operator.
+	 */
+	public long appointmentsOf(String operatorId) {
+		LongAdder total = this.totals.get(operatorId);
+		return total == null ? 0 : total.sum();
+	}
+
+	/**
+	 * @return the number of appointments of the operator on the date.
+	 */
+	public long appointmentsOf(String operatorId, LocalDate date) {
+		ConcurrentMap<LocalDate, LongAdder> days = this.daily.get(operatorId);
+		if (days == null) {
+			return 0;
+		}
+		LongAdder day = days.get(date);
+		return day == null ? 0 : day.sum();
+	}
+
+	/**
+	 * Recount the appointment table and repair the persisted operator counters
+	 * and the in-memory ones.
+	 */
+	@Scheduled(initialDelayString = "${appointment.load.reconcile-interval:PT10M}",
+			fixedDelayString = "${appointment.load.reconcile-interval:PT10M}")
+	public void reconcile() {
+		// Bookings still in the journal are counted here but not yet in the table
+		this.writeBehindBookingWriter.flushPending();
+		Integer repairedOperators = this.transactionTemplate
+				.execute(status -> this.serviceOperatorRepo.reconcileNumberOfAppointments());
+		int driftedCounters = reload();
+		if (repairedOperators != null && repairedOperators > 0 || driftedCounters > 0) {
+			log.warn("Repaired appointment counters: {} persisted operator counts, {} in-memory counters",
+					repairedOperators, driftedCounters);
+		}
+	}
+
+	/**
+	 * Bring every in-memory counter in line with the appointment table.
+	 *
+	 * @return the number of counters that had drifted.
+	 */
+	private int reload() {
+		Map<String, Long> expectedTotals = new HashMap<>();
+		Map<String, Map<LocalDate, Long>> expectedDays = new HashMap<>();
+		List<Object[]> counts = this.appointmentRepo.countByOperatorAndDate();
+		for (Object[] count : counts) {
+			String operatorId = (String) count[0];
+			LocalDate date = (LocalDate) count[1];
+			long appointments = ((Number) count[2]).longValue();
+			if (operatorId == null || date == null) {
+				continue;
+			}
+			expectedTotals.merge(operatorId, appointments, Long::sum);
+			expectedDays.computeIfAbsent(operatorId, k -> new HashMap<>()).put(date, appointments);
+		}
+
+		int drifted = 0;
+		for (Map.Entry<String, Long> total : expectedTotals.entrySet()) {
+			drifted += correct(totalOf(total.getKey()), total.getValue());
+		}
+		for (Map.Entry<String, LongAdder> total : this.totals.entrySet()) {
+			if (!expectedTotals.containsKey(total.getKey())) {
+				drifted += correct(total.getValue(), 0);
+			}
+		}
+		for (Map.Entry<String, Map<LocalDate, Long>> days : expectedDays.entrySet()) {
+			for (Map.Entry<LocalDate, Long> day : days.getValue().entrySet()) {
+				drifted += correct(dayOf(days.getKey(), day.getKey()), day.getValue());
+			}
+		}
+		for (Map.Entry<String, ConcurrentMap<LocalDate, LongAdder>> days : this.daily.entrySet()) {
+			Map<LocalDate, Long> expected = expectedDays.getOrDefault(days.getKey(), Map.of());
+			for (Map.Entry<LocalDate, LongAdder> day : days.getValue().entrySet()) {
+				if (!expected.containsKey(day.getKey())) {
+					drifted += correct(day.getValue(), 0);
+				}
+			}
+		}
+		return drifted;
+	}
+
+	// Adjust rather than replace the adder, so increments made during the pass are kept
+	private static int correct(LongAdder counter, long expected) {
+		long drift = expected - counter.sum();
+		if (drift == 0) {
+			return 0;
+		}
+		counter.add(drift);
+		return 1;
+	}
+
+	private LongAdder totalOf(String operatorId) {
+		return this.totals.computeIfAbsent(operatorId, k -> new LongAdder());
+	}
+
+	private LongAdder dayOf(String operatorId, LocalDate date) {
+		return this.daily.computeIfAbsent(operatorId, k -> new ConcurrentHashMap<>())
+				.computeIfAbsent(date, k -> new LongAdder());
+	}
+}
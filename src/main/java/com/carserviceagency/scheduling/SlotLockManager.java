@@ -0,0 +1,174 @@
+package com.carserviceagency.scheduling;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.exceptions.AppointmentConflictException;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Striped locks keyed by operator and date. Writers take the stripe of every
+ * day they touch before checking and writing a slot, so bookings for
+ * different operators run in parallel while contenders for the same day queue
+ * in-process instead of racing each other to the database. Waits are bounded
+ * by {@code appointment.locks.timeout-ms}.
+ */
+@Component
+public class SlotLockManager {
+
+	@Value("${appointment.locks.stripes:256}")
+	private int stripeCount;
+
+	@Value("${appointment.locks.timeout-ms:2000}")
+	private long timeoutMillis;
+
+	private ReentrantLock[] stripes;
+
+	private final LongAdder acquisitions = new LongAdder();
+	private final LongAdder contendedAcquisitions = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder totalWaitNanos = new LongAdder();
+	private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+	@PostConstruct
+	public void init() {
+		int size = Integer.highestOneBit(Math.max(1, this.stripeCount - 1) << 1);
+		this.stripes = new ReentrantLock[size];
+		for (int i = 0; i < size; i++) {
+			this.stripes[i] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * Lock the stripes of the given days of an operator. Stripes are always taken
+	 * in index order so two writers touching the same days cannot deadlock.
+	 *
+	 * @return A {@link Lease} that releases the stripes when closed.
+	 * @throws AppointmentConflictException If a stripe could not be acquired
+	 *                                      within the configured timeout.
+	 */
+	public Lease lock(String operatorId, LocalDate... dates) throws AppointmentConflictException {
+		int[] indexes = new int[dates.length];
+		for (int i = 0; i < dates.length; i++) {
+			indexes[i] = stripeOf(operatorId, dates[i]);
+		}
+		return lockStripes(indexes);
+	}
+
+	/**
+	 * Lock the stripes of the given days of several operators at once, for
+	 * writers such as batch bookings that touch many schedules together.
+	 *
+	 * @param datesByOperator The days to lock, keyed by operator ID.
+	 * @return A {@link Lease} that releases the stripes when closed.
+	 * @throws AppointmentConflictException If a stripe could not be acquired
+	 *                                      within the configured timeout.
+	 */
+	public Lease lockAll(Map<String, ? extends Collection<LocalDate>> datesByOperator)
+			throws AppointmentConflictException {
+		int[] indexes = datesByOperator.entrySet().stream()
+				.flatMapToInt(e -> e.getValue().stream().mapToInt(date -> stripeOf(e.getKey(), date)))
+				.toArray();
+		return lockStripes(indexes);
+	}
+
+	private Lease lockStripes(int[] indexes) {
+		indexes = Arrays.stream(indexes).sorted().distinct().toArray();
+
+		Lease lease = new Lease(indexes.length);
+		try {
+			for (int index : indexes) {
+				acquire(this.stripes[index]);
+				lease.add(this.stripes[index]);
+			}
+		} catch (RuntimeException e) {
+			lease.close();
+			throw e;
+		}
+		return lease;
+	}
+
+	private void acquire(ReentrantLock lock) {
+		this.acquisitions.increment();
+		if (lock.tryLock()) {
+			return;
+		}
+		this.contendedAcquisitions.increment();
+		long start = System.nanoTime();
+		boolean acquired;
+		try {
+			acquired = lock.tryLock(this.timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+		long waited = System.nanoTime() - start;
+		this.totalWaitNanos.add(waited);
+		this.maxWaitNanos.accumulate(waited);
+		if (!acquired) {
+			this.timeouts.increment();
+			throw new AppointmentConflictException(
+					"The operator's schedule is busy with other bookings. Please retry.");
+		}
+	}
+
+	private int stripeOf(String operatorId, LocalDate date) {
+		int hash = 31 * operatorId.hashCode() + date.hashCode();
+		hash ^= hash >>> 16;
+		return hash & (this.stripes.length - 1);
+	}
+
+	public long getAcquisitions() {
+		return this.acquisitions.sum();
+	}
+
+	public long getContendedAcquisitions() {
+		return this.contendedAcquisitions.sum();
+	}
+
+	public long getTimeouts() {
+		return this.timeouts.sum();
+	}
+
+	public long getTotalWaitNanos() {
+		return this.totalWaitNanos.sum();
+	}
+
+	public long getMaxWaitNanos() {
+		return this.maxWaitNanos.get();
+	}
+
+	/**
+	 * The set of stripes held by one writer.
+	 */
+	public static final class Lease implements AutoCloseable {
+
+		private final ReentrantLock[] held;
+		private int count;
+
+		private Lease(int capacity) {
+			this.held = new ReentrantLock[capacity];
+		}
+
+		private void add(ReentrantLock lock) {
+			this.held[this.count++] = lock;
+		}
+
+		@Override
+		public void close() {
+			while (this.count > 0) {
+				this.held[--this.count].unlock();
+			}
+		}
+	}
+}
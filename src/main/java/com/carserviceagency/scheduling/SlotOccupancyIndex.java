@@ -0,0 +1,291 @@
+package com.carserviceagency.scheduling;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.repository.ServiceOperatorRepo;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory index of booked time ranges. Every operator has one
+ * {@link DaySchedule} per date holding the start and end minute of each
+ * booking in two sorted arrays. Bookings of a day never overlap, so an overlap
+ * check is a single binary search. A day is replaced copy-on-write with a
+ * compare-and-set, so checks never block. The index is warmed from the
+ * database on startup and updated on every booking, reschedule and
+ * cancellation, so conflict checks are O(log n) and never hit the database.
+ * <p>
+ * The index only sees the writes made on this node. Between nodes, the
+ * database's unique key on operator, date and start time is the only guard,
+ * and it catches two bookings with the same start time but not overlapping
+ * ones that start at different times.
+ */
+@Component
+// Journaled bookings left by a crash are replayed into the database before warming up
+@DependsOn("writeBehindBookingWriter")
+public class SlotOccupancyIndex {
+
+	private static final Logger log = LoggerFactory.getLogger(SlotOccupancyIndex.class);
+
+	public static final int MINUTES_PER_DAY = 24 * 60;
+
+	private final ConcurrentMap<String, ConcurrentMap<LocalDate, AtomicReference<DaySchedule>>> occupancy = new ConcurrentHashMap<>();
+
+	private final NavigableSet<String> operatorIds = new ConcurrentSkipListSet<>();
+
+	@Autowired
+	private AppointmentRepo appointmentRepo;
+
+	@Autowired
+	private ServiceOperatorRepo serviceOperatorRepo;
+
+	/**
+	 * Load all operators and the time ranges of all persisted appointments into
+	 * the index.
+	 */
+	@PostConstruct
+	public void warmUp() {
+		this.operatorIds.addAll(this.serviceOperatorRepo.findAllOperatorIds());
+		List<Object[]> slots = this.appointmentRepo.findAllSlots();
+		for (Object[] slot : slots) {
+			String operatorId = (String) slot[0];
+			LocalDate date = (LocalDate) slot[1];
+			LocalTime startTime = (LocalTime) slot[2];
+			LocalTime endTime = (LocalTime) slot[3];
+			if (operatorId == null || date == null || startTime == null) {
+				continue;
+			}
+			if (!reserve(operatorId, date, startTime, endTime)) {
+				log.warn("Appointment of {} on {} at {} overlaps another one and is not indexed", operatorId, date,
+						startTime);
+			}
+		}
+	}
+
+	/**
+	 * Make a newly created operator known to the index.
+	 */
+	public void registerOperator(String operatorId) {
+		this.operatorIds.add(operatorId);
+	}
+
+	/**
+	 * Forget a deleted operator and all of its bookings.
+	 */
+	public void removeOperator(String operatorId) {
+		this.operatorIds.remove(operatorId);
+		this.occupancy.remove(operatorId);
+	}
+
+	/**
+	 * @return the IDs of all known operators in ascending order.
+	 */
+	public NavigableSet<String> operatorIds() {
+		return Collections.unmodifiableNavigableSet(this.operatorIds);
+	}
+
+	/**
+	 * Check whether the given time range is free for the operator.
+	 *
+	 * @return true if the range overlaps none of the operator's bookings.
+	 */
+	public boolean isFree(String operatorId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+		return !scheduleOf(operatorId, date).overlaps(startMinute(startTime), endMinute(startTime, endTime));
+	}
+
+	/**
+	 * Atomically claim the given time range.
+	 *
+	 * @return true if the range was free and is now reserved, false if it
+	 *         overlaps a booking.
+	 */
+	public boolean reserve(String operatorId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+		int start = startMinute(startTime);
+		int end = endMinute(startTime, endTime);
+		AtomicReference<DaySchedule> day = dayOf(operatorId, date);
+		while (true) {
+			DaySchedule current = day.get();
+			if (current.overlaps(start, end)) {
+				return false;
+			}
+			if (day.compareAndSet(current, current.with(start, end))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Free the given time range. Does nothing if it is not booked.
+	 */
+	public void release(String operatorId, LocalDate date, LocalTime startTime, LocalTime endTime) {
+		int start = startMinute(startTime);
+		int end = endMinute(startTime, endTime);
+		AtomicReference<DaySchedule> day = dayOf(operatorId, date);
+		while (true) {
+			DaySchedule current = day.get();
+			DaySchedule released = current.without(start, end);
+			if (released == current || day.compareAndSet(current, released)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Atomically move a reservation from one time range to another. The old
+	 * range is ignored while checking the new one, so an appointment can be
+	 * moved onto time it already holds.
+	 *
+	 * @return true if the move succeeded, false if the new range conflicts with
+	 *         another booking, in which case the index is left unchanged.
+	 */
+	public boolean move(String operatorId, LocalDate oldDate, LocalTime oldStartTime, LocalTime oldEndTime,
+			LocalDate newDate, LocalTime newStartTime, LocalTime newEndTime) {
+		if (!oldDate.equals(newDate)) {
+			if (!reserve(operatorId, newDate, newStartTime, newEndTime)) {
+				return false;
+			}
+			release(operatorId, oldDate, oldStartTime, oldEndTime);
+			return true;
+		}
+		int oldStart = startMinute(oldStartTime);
+		int oldEnd = endMinute(oldStartTime, oldEndTime);
+		int newStart = startMinute(newStartTime);
+		int newEnd = endMinute(newStartTime, newEndTime);
+		AtomicReference<DaySchedule> day = dayOf(operatorId, newDate);
+		while (true) {
+			DaySchedule current = day.get();
+			DaySchedule withoutOld = current.without(oldStart, oldEnd);
+			if (withoutOld.overlaps(newStart, newEnd)) {
+				return false;
+			}
+			if (day.compareAndSet(current, withoutOld.with(newStart, newEnd))) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @return a snapshot of the operator's bookings on the date.
+	 */
+	public DaySchedule scheduleOf(String operatorId, LocalDate date) {
+		ConcurrentMap<LocalDate, AtomicReference<DaySchedule>> days = this.occupancy.get(operatorId);
+		if (days == null) {
+			return DaySchedule.EMPTY;
+		}
+		AtomicReference<DaySchedule> day = days.get(date);
+		return day == null ? DaySchedule.EMPTY : day.get();
+	}
+
+	private AtomicReference<DaySchedule> dayOf(String operatorId, LocalDate date) {
+		return this.occupancy.computeIfAbsent(operatorId, k -> new ConcurrentHashMap<>())
+				.computeIfAbsent(date, k -> new AtomicReference<>(DaySchedule.EMPTY));
+	}
+
+	/**
+	 * @return the minute of the day the time falls in.
+	 */
+	public static int startMinute(LocalTime startTime) {
+		return startTime.toSecondOfDay() / 60;
+	}
+
+	/**
+	 * @return the first minute after the range, rounded up. An end time at or
+	 *         before the start time is taken to mean midnight.
+	 */
+	public static int endMinute(LocalTime startTime, LocalTime endTime) {
+		if (endTime == null || !endTime.isAfter(startTime)) {
+			return MINUTES_PER_DAY;
+		}
+		return Math.max(startMinute(startTime) + 1, (endTime.toSecondOfDay() + 59) / 60);
+	}
+
+	/**
+	 * The bookings of one operator on one day as half-open minute ranges
+	 * {@code [start, end)}, sorted by start. Because the ranges never overlap,
+	 * the end minutes are sorted too. Instances are immutable.
+	 */
+	public static final class DaySchedule {
+
+		static final DaySchedule EMPTY = new DaySchedule(new int[0], new int[0]);
+
+		private final int[] starts;
+
+		private final int[] ends;
+
+		private DaySchedule(int[] starts, int[] ends) {
+			this.starts = starts;
+			this.ends = ends;
+		}
+
+		public int size() {
+			return this.starts.length;
+		}
+
+		public int startAt(int index) {
+			return this.starts[index];
+		}
+
+		public int endAt(int index) {
+			return this.ends[index];
+		}
+
+		/**
+		 * Only the last booking starting before {@code end} can overlap the range:
+		 * every earlier one ends no later than it does.
+		 */
+		public boolean overlaps(int start, int end) {
+			int before = insertionPoint(end);
+			return before > 0 && this.ends[before - 1] > start;
+		}
+
+		DaySchedule with(int start, int end) {
+			int index = insertionPoint(start);
+			return new DaySchedule(insert(this.starts, index, start), insert(this.ends, index, end));
+		}
+
+		DaySchedule without(int start, int end) {
+			int index = Arrays.binarySearch(this.starts, start);
+			if (index < 0 || this.ends[index] != end) {
+				return this;
+			}
+			return new DaySchedule(remove(this.starts, index), remove(this.ends, index));
+		}
+
+		// Number of bookings starting before the minute
+		private int insertionPoint(int minute) {
+			int index = Arrays.binarySearch(this.starts, minute);
+			return index < 0 ? -index - 1 : index;
+		}
+
+		private static int[] insert(int[] values, int index, int value) {
+			int[] inserted = new int[values.length + 1];
+			System.arraycopy(values, 0, inserted, 0, index);
+			inserted[index] = value;
+			System.arraycopy(values, index, inserted, index + 1, values.length - index);
+			return inserted;
+		}
+
+		private static int[] remove(int[] values, int index) {
+			int[] removed = new int[values.length - 1];
+			System.arraycopy(values, 0, removed, 0, index);
+			System.arraycopy(values, index + 1, removed, index, values.length - index - 1);
+			return removed;
+		}
+	}
+}
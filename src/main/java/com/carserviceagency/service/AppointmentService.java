@@ -1,20 +1,32 @@
 package com.carserviceagency.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.carserviceagency.exceptions.AppointmentException;
 import com.carserviceagency.payload.requests.AppointmentRequest;
+import com.carserviceagency.payload.requests.CheckAvailabilityRequest;
 import com.carserviceagency.payload.response.ApiResponse;
+import com.carserviceagency.payload.response.AppointmentEventPageResponse;
+import com.carserviceagency.payload.response.AppointmentPageResponse;
 import com.carserviceagency.payload.response.AppointmentResponse;
 import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+import com.carserviceagency.payload.response.BatchBookingResponse;
+import com.carserviceagency.payload.response.CheckAvailabilityResponse;
 
 public interface AppointmentService {
 
 	AppointmentResponse scheduleAppointment(AppointmentRequest appointmentRequest) throws AppointmentException;
+	AppointmentResponse scheduleAppointmentWithAnyOperator(AppointmentRequest appointmentRequest) throws AppointmentException;
+	BatchBookingResponse scheduleAppointments(List<AppointmentRequest> appointmentRequests) throws AppointmentException;
 	AppointmentResponse rescheduleAppointment(Long appointmentId,AppointmentRequest appointmentRequest) throws AppointmentException;
 	ApiResponse cancelAppointment(Long appointmentId);
 	AppointmentResponse getAppointmentById(Long appointmentId ) throws AppointmentException;
 	List<AppointmentResponse> getAllAppointentsOfCustomer(String customerName);
+	AppointmentPageResponse getAppointmentsOfCustomer(String customerName, String cursor, int size) throws AppointmentException;
 	List<AppointmentsOfOperatorResponse> getAllAppointmentsOfOperators();
+	void streamAppointmentsOfOperators(Consumer<AppointmentsOfOperatorResponse> consumer);
+	List<CheckAvailabilityResponse> checkAvailability(CheckAvailabilityRequest checkAvailabilityRequest) throws AppointmentException;
+	AppointmentEventPageResponse getAppointmentEvents(String after, int size) throws AppointmentException;
 
 }
@@ -1,11 +1,13 @@
 package com.carserviceagency.service;
 
+import java.time.LocalDate;
 import java.util.List;
 
 import com.carserviceagency.entities.ServiceOperator;
 import com.carserviceagency.exceptions.ResourceNotFoundException;
 import com.carserviceagency.payload.requests.ServiceOperatorRequest;
 import com.carserviceagency.payload.response.ApiResponse;
+import com.carserviceagency.payload.response.OperatorLoadResponse;
 import com.carserviceagency.payload.response.ServiceOperatorResponse;
 
 public interface ServiceOperatorService {
@@ -15,5 +17,6 @@ public interface ServiceOperatorService {
 	List<ServiceOperatorResponse> getAllOperators();
 	ServiceOperatorResponse updateServiceOperatorById(String operatorId,ServiceOperator serviceOperator) throws ResourceNotFoundException;
 	ApiResponse deleteServiceOperatorById(String operatorId) throws ResourceNotFoundException;
+	List<OperatorLoadResponse> getOperatorLoad(LocalDate date);
 
 }
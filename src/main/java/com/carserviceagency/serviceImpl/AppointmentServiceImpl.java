@@ -13,31 +13,77 @@ package com.carserviceagency.serviceImpl;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.modelmapper.ModelMapper;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.carserviceagency.cache.AppointmentCacheInvalidator;
+import com.carserviceagency.datasource.ReplicaLagGuard;
 import com.carserviceagency.entities.Appointment;
 import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.events.AppointmentEventSink;
+import com.carserviceagency.events.AppointmentOutbox;
+import com.carserviceagency.exceptions.AppointmentConflictException;
 import com.carserviceagency.exceptions.AppointmentException;
+import com.carserviceagency.journal.WriteBehindBookingWriter;
+import com.carserviceagency.mapper.AppointmentMapper;
+import com.carserviceagency.payload.requests.AppointmentCursor;
 import com.carserviceagency.payload.requests.AppointmentRequest;
+import com.carserviceagency.payload.requests.CheckAvailabilityRequest;
 import com.carserviceagency.payload.response.ApiResponse;
+import com.carserviceagency.payload.response.AppointmentEventPageResponse;
+import com.carserviceagency.payload.response.AppointmentEventResponse;
+import com.carserviceagency.payload.response.AppointmentPageResponse;
 import com.carserviceagency.payload.response.AppointmentResponse;
 import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+import com.carserviceagency.payload.response.BatchBookingItemResponse;
+import com.carserviceagency.payload.response.BatchBookingResponse;
+import com.carserviceagency.payload.response.CheckAvailabilityResponse;
+import com.carserviceagency.report.OperatorReportEngine;
 import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.repository.OperatorAppointmentRow;
 import com.carserviceagency.repository.ServiceOperatorRepo;
+import com.carserviceagency.scheduling.FreeSlotEngine;
+import com.carserviceagency.scheduling.OperatorAssigner;
+import com.carserviceagency.scheduling.OperatorLoadCounters;
+import com.carserviceagency.scheduling.SlotLockManager;
+import com.carserviceagency.scheduling.SlotOccupancyIndex;
 import com.carserviceagency.service.AppointmentService;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
 @Service
+@Timed(value = "appointment.service", histogram = true)
 public class AppointmentServiceImpl implements AppointmentService {
 
 	@Autowired
-	private ModelMapper modelMapper;
+	private AppointmentMapper appointmentMapper;
 
 	@Autowired
 	private AppointmentRepo appointmentRepo;
@@ -45,118 +91,607 @@ public class AppointmentServiceImpl implements AppointmentService {
 	@Autowired
 	private ServiceOperatorRepo serviceOperatorRepo;
 
+	@Autowired
+	private SlotOccupancyIndex slotOccupancyIndex;
+
+	@Autowired
+	private FreeSlotEngine freeSlotEngine;
+
+	@Autowired
+	private SlotLockManager slotLockManager;
+
+	@Autowired
+	private AppointmentCacheInvalidator appointmentCacheInvalidator;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private ReplicaLagGuard replicaLagGuard;
+
+	@Autowired
+	private OperatorReportEngine operatorReportEngine;
+
+	@Autowired
+	private OperatorLoadCounters operatorLoadCounters;
+
+	@Autowired
+	private OperatorAssigner operatorAssigner;
+
+	@Autowired
+	private WriteBehindBookingWriter writeBehindBookingWriter;
+
+	@Autowired
+	private AppointmentOutbox appointmentOutbox;
+
+	@Autowired
+	private AppointmentEventSink appointmentEventSink;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${appointment.availability.max-days:31}")
+	private int maxAvailabilityDays;
+
+	@Value("${appointment.booking.max-conflict-retries:3}")
+	private int maxConflictRetries;
+
+	@Value("${appointment.booking.max-batch-size:200}")
+	private int maxBatchSize;
+
+	@Value("${appointment.booking.default-duration-minutes:60}")
+	private int defaultDurationMinutes;
+
+	@Value("${appointment.booking.min-duration-minutes:30}")
+	private int minDurationMinutes;
+
+	@Value("${appointment.booking.max-duration-minutes:240}")
+	private int maxDurationMinutes;
+
+	@Value("${appointment.pagination.max-page-size:100}")
+	private int maxPageSize;
+
+	private static final String SLOT_TAKEN_MESSAGE = "An appointment already exists at the selected date and time. Please select another slot.";
+
+	private static final String NO_OPERATOR_FREE_MESSAGE = "No operator is available at the selected date and time. Please select another slot.";
+
+	// Keyed by operation and detector, so a conflict does not look its counter up in the registry again
+	private final ConcurrentMap<String, Counter> conflictCounters = new ConcurrentHashMap<>();
+
 	
 	
 	
 	
 	/**
-	 * Schedule a new appointment for the specified operator. Checks for existing
-	 * appointments at the selected date and time. Throws an
-	 * {@link AppointmentException} if the operator does not exist or if there is a
-	 * scheduling conflict.
+	 * Schedule a new appointment for the specified operator. The appointment
+	 * lasts the requested number of minutes, or the configured default, and is
+	 * checked for overlaps with the operator's other appointments against the
+	 * in-memory {@link SlotOccupancyIndex}; the unique key on the appointment
+	 * table backs this up across nodes for identical start times. Throws an
+	 * {@link AppointmentException} if the operator does not exist or the
+	 * duration is invalid and an {@link AppointmentConflictException} if there
+	 * is a scheduling conflict.
 	 *
 	 * @param appointmentRequest The appointment request containing details of the
 	 *                           appointment to be scheduled.
 	 * @return An {@link AppointmentResponse} object representing the scheduled
 	 *         appointment.
-	 * @throws AppointmentException If the operator does not exist or if there is a
-	 *                              scheduling conflict.
+	 * @throws AppointmentException If the operator does not exist, the duration is
+	 *                              invalid or there is a scheduling conflict.
 	 */
-	@CacheEvict(value = "appointmentsOfOperators")
 	@Override
 	public AppointmentResponse scheduleAppointment(AppointmentRequest appointmentRequest) throws AppointmentException {
-		List<Appointment> appointments = this.appointmentRepo.findAllAppointments(appointmentRequest.getOperatorId());
-
 		// Check if operator exists
 		ServiceOperator operator = this.serviceOperatorRepo.findByOperatorId(appointmentRequest.getOperatorId());
 		if (operator == null) {
 			throw new AppointmentException("No operator found with ID: " + appointmentRequest.getOperatorId());
 		}
 
-		// Check if there are existing appointments for the operator
-		boolean appointmentExists = appointments.stream().anyMatch(e -> e.getDate().equals(appointmentRequest.getDate())
-				&& e.getStartTime().equals(appointmentRequest.getStartTime()));
+		LocalTime endTime = endTimeOf(appointmentRequest.getStartTime(), appointmentRequest.getDurationMinutes(),
+				this.defaultDurationMinutes);
+		return this.appointmentMapper.toResponse(book(operator, appointmentRequest, endTime, "book"));
+	}
 
-		if (appointmentExists) {
-			throw new AppointmentException(
-					"An appointment already exists at the selected date and time. Please select another slot.");
+	/**
+	 * Schedule a new appointment with whichever operator is free at the selected
+	 * date and time, ignoring the operator ID of the request. Operators are tried
+	 * least loaded first, as ordered by the {@link OperatorAssigner}. An operator
+	 * whose slot is taken, including by a concurrent booking that claimed it
+	 * first, is skipped in favour of the next one, so the caller does not have to
+	 * retry across operators.
+	 *
+	 * @param appointmentRequest The appointment request containing details of the
+	 *                           appointment to be scheduled.
+	 * @return An {@link AppointmentResponse} object representing the scheduled
+	 *         appointment and the operator it was assigned to.
+	 * @throws AppointmentException If the date, time or duration is invalid or no
+	 *                              operator is free at the selected time.
+	 */
+	@Override
+	public AppointmentResponse scheduleAppointmentWithAnyOperator(AppointmentRequest appointmentRequest)
+			throws AppointmentException {
+		LocalDate date = appointmentRequest.getDate();
+		LocalTime startTime = appointmentRequest.getStartTime();
+		if (date == null || startTime == null) {
+			throw new AppointmentException("A date and start time are required.");
+		}
+		LocalTime endTime = endTimeOf(startTime, appointmentRequest.getDurationMinutes(), this.defaultDurationMinutes);
+
+		for (Iterator<String> candidates = this.operatorAssigner.candidatesFor(date); candidates.hasNext();) {
+			String operatorId = candidates.next();
+			if (!this.slotOccupancyIndex.isFree(operatorId, date, startTime, endTime)) {
+				continue;
+			}
+			ServiceOperator operator = this.serviceOperatorRepo.findByOperatorId(operatorId);
+			if (operator == null) {
+				continue;
+			}
+			try {
+				return this.appointmentMapper.toResponse(book(operator, appointmentRequest, endTime, "assign"));
+			} catch (AppointmentConflictException e) {
+				// Lost the slot to a concurrent booking, try the next operator
+			}
 		}
+		throw new AppointmentConflictException(NO_OPERATOR_FREE_MESSAGE);
+	}
 
-		Appointment newAppointment = this.modelMapper.map(appointmentRequest, Appointment.class);
-		newAppointment.setEndTime(newAppointment.getStartTime().plusHours(1));
+	/**
+	 * Book an appointment with the given operator. The slot is claimed in the
+	 * {@link SlotOccupancyIndex} under the operator's day lock and the
+	 * appointment is inserted and counted, or with write-behind on, journaled
+	 * for the {@link WriteBehindBookingWriter} to insert.
+	 *
+	 * @param operation Tags conflicts in the booking metrics.
+	 * @throws AppointmentConflictException If the slot overlaps another
+	 *                                      appointment of the operator.
+	 */
+	private Appointment book(ServiceOperator operator, AppointmentRequest appointmentRequest, LocalTime endTime,
+			String operation) {
+		LocalDate date = appointmentRequest.getDate();
+		LocalTime startTime = appointmentRequest.getStartTime();
+		Appointment newAppointment = this.appointmentMapper.toEntity(appointmentRequest);
+		newAppointment.setEndTime(endTime);
 		newAppointment.setOperator(operator);
-		appointmentRepo.save(newAppointment);
+		// Claim the slot under the operator's day lock, this fails if it is already booked
+		try (SlotLockManager.Lease lease = this.slotLockManager.lock(operator.getOperatorId(), date)) {
+			if (!this.slotOccupancyIndex.reserve(operator.getOperatorId(), date, startTime, endTime)) {
+				countConflict(operation, "index");
+				throw new AppointmentConflictException(SLOT_TAKEN_MESSAGE);
+			}
+			try {
+				if (this.writeBehindBookingWriter.isEnabled()) {
+					this.writeBehindBookingWriter.append(newAppointment);
+				} else {
+					insertCounted(newAppointment);
+				}
+			} catch (DataIntegrityViolationException e) {
+				// Another node holds the slot, keep it marked as taken in the index
+				if (isSlotConflict(e)) {
+					countConflict(operation, "database");
+					throw new AppointmentConflictException(SLOT_TAKEN_MESSAGE);
+				}
+				this.slotOccupancyIndex.release(operator.getOperatorId(), date, startTime, endTime);
+				throw e;
+			} catch (RuntimeException e) {
+				this.slotOccupancyIndex.release(operator.getOperatorId(), date, startTime, endTime);
+				throw e;
+			}
+		}
+		this.operatorLoadCounters.booked(operator.getOperatorId(), date);
+		// A journaled booking is not in the database yet, the writer does this once it is
+		if (!this.writeBehindBookingWriter.isEnabled()) {
+			this.replicaLagGuard.recordWrite(ReplicaLagGuard.appointment(newAppointment.getAppointmentId()),
+					ReplicaLagGuard.customer(newAppointment.getCustomerName()));
+			this.appointmentCacheInvalidator.appointmentChanged(newAppointment.getAppointmentId(),
+					newAppointment.getCustomerName());
+		}
+		return newAppointment;
+	}
 
-		AppointmentResponse appointmentResponse = this.modelMapper.map(newAppointment, AppointmentResponse.class);
-		appointmentResponse.setOperatorName(operator.getOperatorName());
-		appointmentResponse.setOperatorId(operator.getOperatorId());
+	/**
+	 * Schedule many appointments at once. The operators of the batch are loaded
+	 * with one query and the stripes of every day it touches are locked
+	 * together. Each request is then checked against the
+	 * {@link SlotOccupancyIndex}, which also catches two requests in the batch
+	 * that overlap each other, and the accepted appointments are inserted in
+	 * one transaction using JDBC batching. Requests that fail do not fail the
+	 * others; if the batch insert is rejected because another node took one of
+	 * the slots, the accepted appointments are retried one by one.
+	 *
+	 * @param appointmentRequests The appointments to schedule.
+	 * @return A {@link BatchBookingResponse} with one result per request, in
+	 *         request order.
+	 * @throws AppointmentException If the batch is empty or larger than the
+	 *                              configured maximum.
+	 */
+	@Override
+	public BatchBookingResponse scheduleAppointments(List<AppointmentRequest> appointmentRequests)
+			throws AppointmentException {
+		if (appointmentRequests == null || appointmentRequests.isEmpty()) {
+			throw new AppointmentException("At least one appointment is required.");
+		}
+		if (appointmentRequests.size() > maxBatchSize) {
+			throw new AppointmentException("A batch can contain at most " + maxBatchSize + " appointments.");
+		}
 
-		return appointmentResponse;
+		BatchBookingItemResponse[] results = new BatchBookingItemResponse[appointmentRequests.size()];
+		Set<String> operatorIds = appointmentRequests.stream().filter(appointmentRequest -> appointmentRequest != null)
+				.map(AppointmentRequest::getOperatorId).filter(operatorId -> operatorId != null)
+				.collect(Collectors.toSet());
+		Map<String, ServiceOperator> operators = this.serviceOperatorRepo.findAllById(operatorIds).stream()
+				.collect(Collectors.toMap(ServiceOperator::getOperatorId, operator -> operator));
+
+		// Validate the requests and collect the days each operator is booked on
+		Map<Integer, Appointment> candidates = new LinkedHashMap<>();
+		Map<String, Set<LocalDate>> datesByOperator = new HashMap<>();
+		for (int i = 0; i < appointmentRequests.size(); i++) {
+			AppointmentRequest appointmentRequest = appointmentRequests.get(i);
+			if (appointmentRequest == null) {
+				results[i] = failed(i, "An appointment is required.");
+				continue;
+			}
+			ServiceOperator operator = operators.get(appointmentRequest.getOperatorId());
+			if (operator == null) {
+				results[i] = failed(i, "No operator found with ID: " + appointmentRequest.getOperatorId());
+			} else if (appointmentRequest.getDate() == null || appointmentRequest.getStartTime() == null) {
+				results[i] = failed(i, "A date and start time are required.");
+			} else {
+				LocalTime endTime;
+				try {
+					endTime = endTimeOf(appointmentRequest.getStartTime(), appointmentRequest.getDurationMinutes(),
+							this.defaultDurationMinutes);
+				} catch (AppointmentException e) {
+					results[i] = failed(i, e.getMessage());
+					continue;
+				}
+				Appointment appointment = this.appointmentMapper.toEntity(appointmentRequest);
+				appointment.setEndTime(endTime);
+				appointment.setOperator(operator);
+				candidates.put(i, appointment);
+				datesByOperator.computeIfAbsent(operator.getOperatorId(), k -> new TreeSet<>())
+						.add(appointment.getDate());
+			}
+		}
+
+		Map<Integer, Appointment> booked = new LinkedHashMap<>();
+		try (SlotLockManager.Lease lease = this.slotLockManager.lockAll(datesByOperator)) {
+			// Claim the slots, one overlapping an earlier request of the batch is rejected too
+			for (Map.Entry<Integer, Appointment> candidate : candidates.entrySet()) {
+				Appointment appointment = candidate.getValue();
+				if (this.slotOccupancyIndex.reserve(appointment.getOperator().getOperatorId(), appointment.getDate(),
+						appointment.getStartTime(), appointment.getEndTime())) {
+					booked.put(candidate.getKey(), appointment);
+				} else {
+					countConflict("batch", "index");
+					results[candidate.getKey()] = failed(candidate.getKey(), SLOT_TAKEN_MESSAGE);
+				}
+			}
+			saveBatch(booked, results);
+		}
+
+		Set<String> customerNames = new LinkedHashSet<>();
+		List<Long> appointmentIds = new ArrayList<>();
+		int bookedCount = 0;
+		for (Map.Entry<Integer, Appointment> entry : booked.entrySet()) {
+			if (results[entry.getKey()] == null) {
+				Appointment appointment = entry.getValue();
+				results[entry.getKey()] = new BatchBookingItemResponse(entry.getKey(), true,
+						this.appointmentMapper.toResponse(appointment), null);
+				appointmentIds.add(appointment.getAppointmentId());
+				customerNames.add(appointment.getCustomerName());
+				this.operatorLoadCounters.booked(appointment.getOperator().getOperatorId(), appointment.getDate());
+				bookedCount++;
+			}
+		}
+		if (bookedCount > 0) {
+			this.replicaLagGuard.recordWrite(Stream.concat(appointmentIds.stream().map(ReplicaLagGuard::appointment),
+					customerNames.stream().map(ReplicaLagGuard::customer)).toArray(String[]::new));
+			this.appointmentCacheInvalidator.appointmentsChanged(appointmentIds, customerNames);
+		}
+
+		return new BatchBookingResponse(bookedCount, results.length - bookedCount, List.of(results));
+	}
+
+	/**
+	 * Insert the reserved appointments of a batch in one transaction, together
+	 * with the operator appointment counts and their booking events. If that is
+	 * rejected by the slot unique key, fall back to inserting them one by one so
+	 * only the requests whose slot is taken elsewhere fail. Failed requests get
+	 * their result set; successful ones are left for the caller.
+	 */
+	private void saveBatch(Map<Integer, Appointment> booked, BatchBookingItemResponse[] results) {
+		if (booked.isEmpty()) {
+			return;
+		}
+		try {
+			Map<String, Integer> bookingsByOperator = new HashMap<>();
+			for (Appointment appointment : booked.values()) {
+				bookingsByOperator.merge(appointment.getOperator().getOperatorId(), 1, Integer::sum);
+			}
+			this.transactionTemplate.executeWithoutResult(status -> {
+				appointmentRepo.saveAllAndFlush(booked.values());
+				bookingsByOperator.forEach(this.serviceOperatorRepo::adjustNumberOfAppointments);
+				this.appointmentOutbox.booked(booked.values());
+			});
+			return;
+		} catch (RuntimeException e) {
+			if (!(e instanceof DataIntegrityViolationException && isSlotConflict((DataIntegrityViolationException) e))) {
+				releaseAll(booked.values());
+				throw e;
+			}
+		}
+
+		for (Map.Entry<Integer, Appointment> entry : booked.entrySet()) {
+			Appointment appointment = entry.getValue();
+			// The rolled back batch may have assigned an ID and version already
+			appointment.setAppointmentId(null);
+			appointment.setVersion(null);
+			try {
+				insertCounted(appointment);
+			} catch (RuntimeException e) {
+				if (e instanceof DataIntegrityViolationException && isSlotConflict((DataIntegrityViolationException) e)) {
+					// Another node holds the slot, keep it marked as taken in the index
+					countConflict("batch", "database");
+					results[entry.getKey()] = failed(entry.getKey(), SLOT_TAKEN_MESSAGE);
+				} else {
+					releaseAll(List.of(appointment));
+					results[entry.getKey()] = failed(entry.getKey(), "The appointment could not be saved.");
+				}
+			}
+		}
 	}
 
 	/**
-	 * Reschedule an existing appointment with the specified appointment ID. Checks
-	 * for scheduling conflicts with other appointments for the same operator and
-	 * date. Throws an {@link AppointmentException} if the appointment is not found
-	 * or if there is a scheduling conflict.
+	 * Insert an appointment, count it on its operator and record its booking
+	 * event in one transaction.
+	 */
+	private void insertCounted(Appointment appointment) {
+		this.transactionTemplate.executeWithoutResult(status -> {
+			appointmentRepo.saveAndFlush(appointment);
+			this.serviceOperatorRepo.adjustNumberOfAppointments(appointment.getOperator().getOperatorId(), 1);
+			this.appointmentOutbox.booked(appointment);
+		});
+	}
+
+	private void releaseAll(Collection<Appointment> appointments) {
+		for (Appointment appointment : appointments) {
+			this.slotOccupancyIndex.release(appointment.getOperator().getOperatorId(), appointment.getDate(),
+					appointment.getStartTime(), appointment.getEndTime());
+		}
+	}
+
+	private static BatchBookingItemResponse failed(int index, String message) {
+		return new BatchBookingItemResponse(index, false, null, message);
+	}
+
+	/**
+	 * Reschedule an existing appointment with the specified appointment ID. The
+	 * appointment keeps its length unless the request sets a new duration.
+	 * Checks for overlaps with other appointments for the same operator and
+	 * date. The write is guarded by the appointment version, so a concurrent
+	 * change causes the whole read-check-write to be retried, and records a
+	 * reschedule event in the same transaction. Throws an
+	 * {@link AppointmentException} if the appointment is not found and an
+	 * {@link AppointmentConflictException} if there is a scheduling conflict.
 	 *
 	 * @param appointmentId      The ID of the appointment to be rescheduled.
 	 * @param appointmentRequest The appointment request containing the new date and
 	 *                           time for the appointment.
 	 * @return An {@link AppointmentResponse} object representing the updated
 	 *         appointment details.
-	 * @throws AppointmentException If the appointment is not found or if there is a
-	 *                              scheduling conflict.
+	 * @throws AppointmentException If the appointment is not found, the date or
+	 *                              time is missing or there is a scheduling
+	 *                              conflict.
 	 */
-	
-	
-	@CacheEvict(value = "appointmentsOfOperators")
 	@Override
-	public AppointmentResponse rescheduleAppointment(Long appointmentId, AppointmentRequest appointmentRequest) {
-		try {
-			Appointment appointment = appointmentRepo.findById(appointmentId)
-					.orElseThrow(() -> new AppointmentException("Appointment not found with ID: " + appointmentId));
+	public AppointmentResponse rescheduleAppointment(Long appointmentId, AppointmentRequest appointmentRequest)
+			throws AppointmentException {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return tryRescheduleAppointment(appointmentId, appointmentRequest);
+			} catch (OptimisticLockingFailureException e) {
+				countConflict("reschedule", "version");
+				if (attempt >= maxConflictRetries) {
+					throw new AppointmentConflictException(
+							"Appointment with ID " + appointmentId + " was modified concurrently. Please retry.");
+				}
+			}
+		}
+	}
+
+	private AppointmentResponse tryRescheduleAppointment(Long appointmentId, AppointmentRequest appointmentRequest) {
+		this.writeBehindBookingWriter.awaitFlushed(appointmentId);
+		LocalDate newDate = appointmentRequest.getDate();
+		LocalTime newStartTime = appointmentRequest.getStartTime();
+		if (newDate == null || newStartTime == null) {
+			throw new AppointmentException("A date and start time are required.");
+		}
 
-			LocalDate newDate = appointmentRequest.getDate();
-			LocalTime newStartTime = appointmentRequest.getStartTime();
+		Appointment appointment;
+		String operatorId;
+		String oldCustomerName;
+		LocalDate oldDate;
+		LocalTime oldStartTime;
+		LocalTime oldEndTime;
+		LocalTime newEndTime;
+		try (LockedAppointment locked = lockAppointment(appointmentId, newDate)) {
+			appointment = locked.appointment();
+			operatorId = appointment.getOperator().getOperatorId();
+			oldCustomerName = appointment.getCustomerName();
+			oldDate = appointment.getDate();
+			oldStartTime = appointment.getStartTime();
+			oldEndTime = appointment.getEndTime();
+			int currentMinutes = SlotOccupancyIndex.endMinute(oldStartTime, oldEndTime)
+					- SlotOccupancyIndex.startMinute(oldStartTime);
+			newEndTime = endTimeOf(newStartTime, appointmentRequest.getDurationMinutes(), currentMinutes);
 
-			// Check if the new slot is available for rescheduling
-			boolean slotAvailable = isSlotAvailableForRescheduling(appointment.getOperator().getOperatorId(), newDate,
-					newStartTime, appointmentId);
+			// Move the booking in the index, this fails if the new slot is taken
+			boolean slotAvailable = this.slotOccupancyIndex.move(operatorId, oldDate, oldStartTime, oldEndTime, newDate,
+					newStartTime, newEndTime);
 			if (!slotAvailable) {
-				throw new AppointmentException("Slot is already booked.");
+				countConflict("reschedule", "index");
+				throw new AppointmentConflictException("Slot is already booked.");
 			}
 
 			// Update appointment details
 			appointment.setCustomerName(appointmentRequest.getCustomerName());
 			appointment.setDate(newDate);
 			appointment.setStartTime(newStartTime);
-			appointment.setEndTime(newStartTime.plusHours(1));
+			appointment.setEndTime(newEndTime);
 
-			// Save the updated appointment
-			appointmentRepo.save(appointment);
+			// Save the updated appointment together with its event
+			try {
+				this.transactionTemplate.executeWithoutResult(status -> {
+					appointmentRepo.saveAndFlush(appointment);
+					this.appointmentOutbox.rescheduled(appointment, oldDate, oldStartTime, oldEndTime);
+				});
+			} catch (RuntimeException e) {
+				// Undo only this reschedule's own change to the index
+				this.slotOccupancyIndex.release(operatorId, newDate, newStartTime, newEndTime);
+				if (e instanceof OptimisticLockingFailureException) {
+					// A concurrent write changed the appointment first, the old range may no longer be its
+					restoreIfStillHeld(appointmentId, operatorId, oldDate, oldStartTime, oldEndTime);
+					throw e;
+				}
+				this.slotOccupancyIndex.reserve(operatorId, oldDate, oldStartTime, oldEndTime);
+				if (e instanceof DataIntegrityViolationException && isSlotConflict((DataIntegrityViolationException) e)) {
+					// Another node holds the new slot, keep it marked as taken in the index
+					countConflict("reschedule", "database");
+					this.slotOccupancyIndex.reserve(operatorId, newDate, newStartTime, newEndTime);
+					throw new AppointmentConflictException("Slot is already booked.");
+				}
+				throw e;
+			}
+		}
+		this.operatorLoadCounters.moved(operatorId, oldDate, newDate);
+		this.replicaLagGuard.recordWrite(ReplicaLagGuard.appointment(appointmentId),
+				ReplicaLagGuard.customer(oldCustomerName), ReplicaLagGuard.customer(appointment.getCustomerName()));
+		this.appointmentCacheInvalidator.appointmentChanged(appointmentId, oldCustomerName,
+				appointment.getCustomerName());
 
-			AppointmentResponse appointmentResponse = modelMapper.map(appointment, AppointmentResponse.class);
-			appointmentResponse.setOperatorId(appointment.getOperator().getOperatorId());
-			appointmentResponse.setOperatorName(appointment.getOperator().getOperatorName());
-			return appointmentResponse;
-		} catch (AppointmentException e) {
+		return this.appointmentMapper.toResponse(appointment);
+	}
 
-			e.printStackTrace();
-			return null;
+	/**
+	 * An appointment read under the day lock of the date it is on.
+	 */
+	private record LockedAppointment(Appointment appointment, SlotLockManager.Lease lease) implements AutoCloseable {
+
+		@Override
+		public void close() {
+			this.lease.close();
+		}
+	}
+
+	/**
+	 * Lock the day an appointment is on and load it under that lock, so the
+	 * range that is moved or released is the one it actually holds. The
+	 * appointment is read once to find its day and again once that day is
+	 * locked; if it moved in between, the lock is dropped and its new day locked
+	 * instead.
+	 *
+	 * @param alsoDates Further days of the appointment's operator to lock with it.
+	 * @throws AppointmentException         If the appointment does not exist.
+	 * @throws AppointmentConflictException If it keeps moving while it is being
+	 *                                      locked.
+	 */
+	private LockedAppointment lockAppointment(Long appointmentId, LocalDate... alsoDates) {
+		Appointment appointment = findAppointment(appointmentId);
+		for (int attempt = 1;; attempt++) {
+			String operatorId = appointment.getOperator().getOperatorId();
+			LocalDate date = appointment.getDate();
+			LocalDate[] dates = Arrays.copyOf(alsoDates, alsoDates.length + 1);
+			dates[alsoDates.length] = date;
+			SlotLockManager.Lease lease = this.slotLockManager.lock(operatorId, dates);
+			Appointment current;
+			try {
+				current = findAppointment(appointmentId);
+			} catch (RuntimeException e) {
+				lease.close();
+				throw e;
+			}
+			if (operatorId.equals(current.getOperator().getOperatorId()) && date.equals(current.getDate())) {
+				return new LockedAppointment(current, lease);
+			}
+			lease.close();
+			if (attempt >= maxConflictRetries) {
+				throw new AppointmentConflictException(
+						"Appointment with ID " + appointmentId + " was modified concurrently. Please retry.");
+			}
+			appointment = current;
+		}
+	}
+
+	private Appointment findAppointment(Long appointmentId) {
+		return appointmentRepo.findById(appointmentId)
+				.orElseThrow(() -> new AppointmentException("Appointment not found with ID: " + appointmentId));
+	}
+
+	/**
+	 * Reserve an appointment's range in the index again after a failed
+	 * reschedule, if the appointment as it is in the database still holds it.
+	 * Must be called under the operator's day lock.
+	 */
+	private void restoreIfStillHeld(Long appointmentId, String operatorId, LocalDate date, LocalTime startTime,
+			LocalTime endTime) {
+		appointmentRepo.findById(appointmentId)
+				.filter(current -> operatorId.equals(current.getOperator().getOperatorId())
+						&& date.equals(current.getDate()) && startTime.equals(current.getStartTime())
+						&& Objects.equals(endTime, current.getEndTime()))
+				.ifPresent(current -> this.slotOccupancyIndex.reserve(operatorId, date, startTime, endTime));
+	}
+
+	/**
+	 * Work out when an appointment starting at the given time ends. A requested
+	 * duration must lie within the configured bounds, and the appointment must
+	 * end by midnight, which is stored as an end time of {@code 00:00}.
+	 *
+	 * @param durationMinutes The requested duration, or null for
+	 *                        {@code fallbackMinutes}.
+	 * @throws AppointmentException If the duration is out of bounds or the
+	 *                              appointment would run past midnight.
+	 */
+	private LocalTime endTimeOf(LocalTime startTime, Integer durationMinutes, int fallbackMinutes) {
+		if (durationMinutes != null && (durationMinutes < this.minDurationMinutes
+				|| durationMinutes > this.maxDurationMinutes)) {
+			throw new AppointmentException("An appointment must last between " + this.minDurationMinutes + " and "
+					+ this.maxDurationMinutes + " minutes.");
 		}
+		int minutes = durationMinutes == null ? fallbackMinutes : durationMinutes;
+		if (startTime.toSecondOfDay() + minutes * 60L > 24 * 60 * 60) {
+			throw new AppointmentException("An appointment must end by midnight.");
+		}
+		return startTime.plusMinutes(minutes);
+	}
+
+	/**
+	 * Count a write that lost a race for a slot. {@code detectedBy} is
+	 * {@code index} when the in-memory index caught a double booking,
+	 * {@code database} when the slot unique key caught another node's write and
+	 * {@code version} when a concurrent change forced a reschedule retry.
+	 */
+	private void countConflict(String operation, String detectedBy) {
+		this.conflictCounters.computeIfAbsent(operation + ':' + detectedBy,
+				k -> Counter.builder("appointment.booking.conflicts")
+						.tag("operation", operation)
+						.tag("detected.by", detectedBy)
+						.description("Bookings and reschedules that conflicted with another write")
+						.register(this.meterRegistry))
+				.increment();
 	}
 
-	private boolean isSlotAvailableForRescheduling(String operatorId, LocalDate date, LocalTime startTime,
-			Long appointmentId) {
-		List<Appointment> existingAppointments = appointmentRepo.findByOperatorIdAndStartDate(operatorId, date);
-		for (Appointment existingAppointment : existingAppointments) {
-			if (!existingAppointment.getAppointmentId().equals(appointmentId)
-					&& existingAppointment.getStartTime().equals(startTime)) {
-				return false;
+	/**
+	 * Check whether a failed write was rejected by the operator slot unique key.
+	 */
+	private boolean isSlotConflict(DataIntegrityViolationException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException) {
+				String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+				return constraintName != null
+						&& constraintName.toLowerCase().contains(Appointment.OPERATOR_SLOT_CONSTRAINT);
 			}
 		}
-		return true;
+		return false;
 	}
 	
 	
@@ -165,22 +700,50 @@ public class AppointmentServiceImpl implements AppointmentService {
 
 	/**
 	 * Cancel an existing appointment with the specified appointment ID. Deletes the
-	 * appointment from the database.
+	 * appointment from the database, uncounts it from its operator and records
+	 * its cancellation event in the same transaction. The delete only matches the
+	 * version that was read, so an appointment changed concurrently is not
+	 * cancelled from a slot it no longer holds.
 	 *
 	 * @param appointmentId The ID of the appointment to be canceled.
 	 * @return An {@link ApiResponse} indicating the success of the cancellation
 	 *         operation.
+	 * @throws AppointmentException         If the appointment is not found.
+	 * @throws AppointmentConflictException If the appointment was changed
+	 *                                      concurrently.
 	 */
-	@CacheEvict(value = "appointments", key = "#appointmentId")
 	@Override
 	public ApiResponse cancelAppointment(Long appointmentId) {
-	    Optional<Appointment> appointmentOptional = appointmentRepo.findById(appointmentId);
-	    if (appointmentOptional.isPresent()) {
-	        appointmentRepo.deleteById(appointmentId);
-	        return new ApiResponse("Appointment with ID " + appointmentId + " has been deleted successfully.");
-	    } else {
-	        throw new AppointmentException("Appointment not found with ID: " + appointmentId);
+	    this.writeBehindBookingWriter.awaitFlushed(appointmentId);
+	    Appointment appointment;
+	    try (LockedAppointment locked = lockAppointment(appointmentId)) {
+	        appointment = locked.appointment();
+	        String operatorId = appointment.getOperator().getOperatorId();
+	        Boolean deleted = this.transactionTemplate.execute(status -> {
+	            if (appointmentRepo.deleteAppointment(appointmentId, appointment.getVersion()) == 0) {
+	                return false;
+	            }
+	            this.serviceOperatorRepo.adjustNumberOfAppointments(operatorId, -1);
+	            this.appointmentOutbox.cancelled(appointment);
+	            return true;
+	        });
+	        if (!Boolean.TRUE.equals(deleted)) {
+	            // Cancelled or changed by another node since it was read, the range it held is not this one's to release
+	            if (appointmentRepo.existsById(appointmentId)) {
+	                countConflict("cancel", "version");
+	                throw new AppointmentConflictException(
+	                        "Appointment with ID " + appointmentId + " was modified concurrently. Please retry.");
+	            }
+	            throw new AppointmentException("Appointment not found with ID: " + appointmentId);
+	        }
+	        this.slotOccupancyIndex.release(operatorId, appointment.getDate(), appointment.getStartTime(),
+	                appointment.getEndTime());
+	        this.operatorLoadCounters.cancelled(operatorId, appointment.getDate());
 	    }
+	    this.replicaLagGuard.recordWrite(ReplicaLagGuard.appointment(appointmentId),
+	            ReplicaLagGuard.customer(appointment.getCustomerName()));
+	    this.appointmentCacheInvalidator.appointmentChanged(appointmentId, appointment.getCustomerName());
+	    return new ApiResponse("Appointment with ID " + appointmentId + " has been deleted successfully.");
 	}
 
 
@@ -196,15 +759,15 @@ public class AppointmentServiceImpl implements AppointmentService {
 	 *         details.
 	 * @throws AppointmentException If the appointment is not found.
 	 */
-	 @Cacheable(value = "appointments", key = "#appointmentId")
+	 @Cacheable(value = "appointments", key = "#appointmentId", sync = true)
+	@Transactional(readOnly = true)
 	@Override
 	public AppointmentResponse getAppointmentById(Long appointmentId) throws AppointmentException {
+		this.writeBehindBookingWriter.awaitFlushed(appointmentId);
+		this.replicaLagGuard.readFromReplica(ReplicaLagGuard.appointment(appointmentId));
 		Appointment appointment = this.appointmentRepo.findById(appointmentId)
 				.orElseThrow(() -> new AppointmentException("cant fint the appointment with the appointment id"));
-		AppointmentResponse appointmentResponse = this.modelMapper.map(appointment, AppointmentResponse.class);
-		appointmentResponse.setOperatorId(appointment.getOperator().getOperatorId());
-		appointmentResponse.setOperatorName(appointment.getOperator().getOperatorName());
-		return appointmentResponse;
+		return this.appointmentMapper.toResponse(appointment);
 	}
 
 	
@@ -218,18 +781,60 @@ public class AppointmentServiceImpl implements AppointmentService {
 	 * @return A list of {@link AppointmentResponse} objects representing the
 	 *         appointments of the customer.
 	 */
-	@Cacheable(value = "appointmentsOfCustomer", key = "#customerName")
+	@Cacheable(value = "appointmentsOfCustomer", key = "#customerName", sync = true)
+	@Transactional(readOnly = true)
 	@Override
 	public List<AppointmentResponse> getAllAppointentsOfCustomer(String customerName) {
+		this.replicaLagGuard.readFromReplica(ReplicaLagGuard.customer(customerName));
 		List<Appointment> appointments = appointmentRepo.findByCustomerName(customerName);
-		List<AppointmentResponse> appointmentResponses = new ArrayList<>();
-		for (Appointment appointment : appointments) {
-			AppointmentResponse appointmentResponse = modelMapper.map(appointment, AppointmentResponse.class);
-			appointmentResponse.setOperatorId(appointment.getOperator().getOperatorId());
-			appointmentResponse.setOperatorName(appointment.getOperator().getOperatorName());
-			appointmentResponses.add(appointmentResponse);
+		return this.appointmentMapper.toResponses(appointments);
+	}
+
+	/**
+	 * Retrieve one page of a customer's appointments, ordered by date, start time
+	 * and appointment ID. Pages are located by keyset rather than offset, so
+	 * every page costs the same however long the history is. Each page is cached
+	 * under the customer's current page generation, which every write of the
+	 * customer's appointments renews.
+	 *
+	 * @param customerName The name of the customer.
+	 * @param cursor       The {@code nextCursor} of the previous page, or
+	 *                     {@code null} for the first page.
+	 * @param size         The maximum number of appointments on the page.
+	 * @return An {@link AppointmentPageResponse} holding the page and the cursor
+	 *         of the next one, which is {@code null} on the last page.
+	 * @throws AppointmentException If the size is out of range or the cursor is
+	 *                              invalid.
+	 */
+	@Cacheable(value = "appointmentPagesOfCustomer", key = "#customerName + ':' + "
+			+ "@appointmentCacheInvalidator.customerPageGeneration(#customerName) + ':' + #size + ':' + #cursor",
+			sync = true)
+	@Transactional(readOnly = true)
+	@Override
+	public AppointmentPageResponse getAppointmentsOfCustomer(String customerName, String cursor, int size)
+			throws AppointmentException {
+		if (size < 1 || size > maxPageSize) {
+			throw new AppointmentException("The page size must be between 1 and " + maxPageSize + ".");
+		}
+		this.replicaLagGuard.readFromReplica(ReplicaLagGuard.customer(customerName));
+		// One extra row tells whether there is a next page
+		Limit limit = Limit.of(size + 1);
+		List<Appointment> appointments;
+		if (cursor == null) {
+			appointments = appointmentRepo.findFirstPageOfCustomer(customerName, limit);
+		} else {
+			AppointmentCursor after = AppointmentCursor.decode(cursor);
+			appointments = appointmentRepo.findPageOfCustomerAfter(customerName, after.getDate(),
+					after.getStartTime(), after.getAppointmentId(), limit);
+		}
+
+		String nextCursor = null;
+		if (appointments.size() > size) {
+			appointments = appointments.subList(0, size);
+			Appointment last = appointments.get(size - 1);
+			nextCursor = new AppointmentCursor(last.getDate(), last.getStartTime(), last.getAppointmentId()).encode();
 		}
-		return appointmentResponses;
+		return new AppointmentPageResponse(this.appointmentMapper.toResponses(appointments), nextCursor);
 	}
 
 	
@@ -237,33 +842,103 @@ public class AppointmentServiceImpl implements AppointmentService {
 	
 	
 	/**
-	 * Retrieve the number of appointments for each service operator.
+	 * Retrieve the number of appointments for each service operator, together
+	 * with a summary of each appointment. Operators are loaded in partitions that
+	 * the {@link OperatorReportEngine} queries in parallel, each partition in its
+	 * own transaction.
 	 *
 	 * @return A list of {@link AppointmentsOfOperatorResponse} objects representing
 	 *         the number of appointments for each operator.
 	 */
-	@Cacheable(value = "appointmentsOfOperators")
+	@Cacheable(value = "appointmentsOfOperators", sync = true)
 	@Override
 	public List<AppointmentsOfOperatorResponse> getAllAppointmentsOfOperators() {
-	    List<ServiceOperator> operators = serviceOperatorRepo.findAll();
-	    List<AppointmentsOfOperatorResponse> operatorAppointments = new ArrayList<>();
-	    
-	    for (ServiceOperator operator : operators) {
-	        List<Appointment> appointments = appointmentRepo.findAllAppointments(operator.getOperatorId());
-	        int noOfAppointments = appointments.size();
-	        
-	        // Create a response object for each operator and add it to the list
-	        AppointmentsOfOperatorResponse operatorResponse = new AppointmentsOfOperatorResponse();
-	        operatorResponse.setOperatorId(operator.getOperatorId());
-	        operatorResponse.setOperatorName(operator.getOperatorName());
-	        operatorResponse.setAppointments(appointments); // Set the list of appointments
-	        operatorResponse.setNoOfAppointments(noOfAppointments);
-	        
-	        operatorAppointments.add(operatorResponse);
+	    return this.operatorReportEngine.buildReport();
+	}
+
+	/**
+	 * Stream the appointments of each service operator to the given consumer, one
+	 * operator at a time, without holding the whole report in memory.
+	 *
+	 * @param consumer Receives one {@link AppointmentsOfOperatorResponse} per
+	 *                 operator, in operator ID order.
+	 */
+	@Transactional(readOnly = true)
+	@Override
+	public void streamAppointmentsOfOperators(Consumer<AppointmentsOfOperatorResponse> consumer) {
+	    this.replicaLagGuard.readFromReplica(ReplicaLagGuard.ALL);
+	    try (Stream<OperatorAppointmentRow> rows = appointmentRepo.streamOperatorAppointmentRows()) {
+	        OperatorReportEngine.groupByOperator(rows.iterator(), consumer);
 	    }
-	    
-	    return operatorAppointments;
 	}
 
+	/**
+	 * Retrieve the merged free time ranges for a date range. When an operator ID
+	 * is given only that operator is checked, otherwise every operator is.
+	 * Served entirely from the in-memory {@link FreeSlotEngine}.
+	 *
+	 * @param checkAvailabilityRequest The request containing the date, optional
+	 *                                 end date and optional operator ID.
+	 * @return A list of {@link CheckAvailabilityResponse} objects, one per
+	 *         operator and date, ordered by date and then operator ID.
+	 * @throws AppointmentException If the dates are invalid or the operator does
+	 *                              not exist.
+	 */
+	@Override
+	public List<CheckAvailabilityResponse> checkAvailability(CheckAvailabilityRequest checkAvailabilityRequest)
+			throws AppointmentException {
+		LocalDate fromDate = checkAvailabilityRequest.getDate();
+		if (fromDate == null) {
+			throw new AppointmentException("A date is required to check availability.");
+		}
+		LocalDate toDate = checkAvailabilityRequest.getToDate() == null ? fromDate : checkAvailabilityRequest.getToDate();
+		if (toDate.isBefore(fromDate) || !toDate.isBefore(fromDate.plusDays(maxAvailabilityDays))) {
+			throw new AppointmentException(
+					"The end date must be on or after the date and within " + maxAvailabilityDays + " days of it.");
+		}
+
+		Collection<String> operatorIds = this.slotOccupancyIndex.operatorIds();
+		String operatorId = checkAvailabilityRequest.getOperatorId();
+		if (operatorId != null) {
+			if (!operatorIds.contains(operatorId)) {
+				throw new AppointmentException("No operator found with ID: " + operatorId);
+			}
+			operatorIds = List.of(operatorId);
+		}
+
+		List<CheckAvailabilityResponse> availability = new ArrayList<>();
+		for (LocalDate date = fromDate; !date.isAfter(toDate); date = date.plusDays(1)) {
+			for (String id : operatorIds) {
+				availability.add(new CheckAvailabilityResponse(id, date, this.freeSlotEngine.freeSlots(id, date)));
+			}
+		}
+		return availability;
+	}
+
+	/**
+	 * Read the appointment change stream. Every booking, reschedule and
+	 * cancellation is recorded in the outbox with the change itself and relayed
+	 * to the {@link AppointmentEventSink}, usually within a second. Delivery is
+	 * at least once, so a consumer should skip event IDs it has already seen.
+	 *
+	 * @param after The {@code nextOffset} of the previous page, or {@code null}
+	 *              to start from the oldest event the stream still holds.
+	 * @param size  The maximum number of events on the page.
+	 * @return An {@link AppointmentEventPageResponse} holding the events and the
+	 *         offset to read the next page after. When there are no new events
+	 *         the offset is the one that was passed in, so polling with it picks
+	 *         up where the consumer left off.
+	 * @throws AppointmentException If the size is out of range or the offset is
+	 *                              invalid.
+	 */
+	@Override
+	public AppointmentEventPageResponse getAppointmentEvents(String after, int size) throws AppointmentException {
+		if (size < 1 || size > maxPageSize) {
+			throw new AppointmentException("The page size must be between 1 and " + maxPageSize + ".");
+		}
+		List<AppointmentEventResponse> events = this.appointmentEventSink.read(after, size);
+		String nextOffset = events.isEmpty() ? after : events.get(events.size() - 1).getOffset();
+		return new AppointmentEventPageResponse(events, nextOffset);
+	}
 
 }
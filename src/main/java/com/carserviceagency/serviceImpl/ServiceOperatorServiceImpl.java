@@ -1,29 +1,50 @@
 package com.carserviceagency.serviceImpl;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.carserviceagency.cache.AppointmentCacheInvalidator;
+import com.carserviceagency.datasource.ReplicaLagGuard;
 import com.carserviceagency.entities.ServiceOperator;
 import com.carserviceagency.exceptions.ResourceNotFoundException;
+import com.carserviceagency.ids.OperatorIdAllocator;
+import com.carserviceagency.journal.WriteBehindBookingWriter;
+import com.carserviceagency.mapper.ServiceOperatorMapper;
 import com.carserviceagency.payload.requests.ServiceOperatorRequest;
 import com.carserviceagency.payload.response.ApiResponse;
+import com.carserviceagency.payload.response.OperatorLoadResponse;
 import com.carserviceagency.payload.response.ServiceOperatorResponse;
 import com.carserviceagency.repository.ServiceOperatorRepo;
+import com.carserviceagency.scheduling.OperatorLoadCounters;
+import com.carserviceagency.scheduling.SlotOccupancyIndex;
 import com.carserviceagency.service.ServiceOperatorService;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed(value = "operator.service", histogram = true)
 public class ServiceOperatorServiceImpl implements ServiceOperatorService {
 
 	@Autowired
 	private ServiceOperatorRepo serviceOperatorRepo;
 	@Autowired
-	private ModelMapper modelMapper;
-	private static final String OPERATOR_ID_PREFIX = "OP";
-	private static final AtomicInteger idCounter = new AtomicInteger(0);
+	private ServiceOperatorMapper serviceOperatorMapper;
+	@Autowired
+	private SlotOccupancyIndex slotOccupancyIndex;
+	@Autowired
+	private AppointmentCacheInvalidator appointmentCacheInvalidator;
+	@Autowired
+	private OperatorIdAllocator operatorIdAllocator;
+	@Autowired
+	private ReplicaLagGuard replicaLagGuard;
+	@Autowired
+	private OperatorLoadCounters operatorLoadCounters;
+	@Autowired
+	private WriteBehindBookingWriter writeBehindBookingWriter;
 
 	/**
 	 * Create a new service operator with the provided details.
@@ -37,11 +58,13 @@ public class ServiceOperatorServiceImpl implements ServiceOperatorService {
 	public ServiceOperatorResponse createServiceOperator(ServiceOperatorRequest serviceOperatorRequest) {
 		ServiceOperator serviceOperator = new ServiceOperator();
 		serviceOperator.setOperatorName(serviceOperatorRequest.getOperatorName());
-		serviceOperator.setOperatorId(generateOperatorId());
+		serviceOperator.setOperatorId(this.operatorIdAllocator.nextOperatorId());
 		this.serviceOperatorRepo.save(serviceOperator);
-		ServiceOperatorResponse serviceOperatorResponse = this.modelMapper.map(serviceOperator,
-				ServiceOperatorResponse.class);
-		return serviceOperatorResponse;
+		this.slotOccupancyIndex.registerOperator(serviceOperator.getOperatorId());
+		this.replicaLagGuard.recordWrite(ReplicaLagGuard.operator(serviceOperator.getOperatorId()),
+				ReplicaLagGuard.OPERATORS);
+		this.appointmentCacheInvalidator.operatorsChanged();
+		return this.serviceOperatorMapper.toResponse(serviceOperator);
 	}
 
 	/**
@@ -53,12 +76,14 @@ public class ServiceOperatorServiceImpl implements ServiceOperatorService {
 	 * @throws ResourceNotFoundException If the service operator with the specified
 	 *                                   ID is not found.
 	 */
+	@Transactional(readOnly = true)
 	@Override
 	public ServiceOperatorResponse getOperatorById(String operatorId) throws ResourceNotFoundException {
+		this.replicaLagGuard.readFromReplica(ReplicaLagGuard.operator(operatorId));
 		ServiceOperator serviceOperator = this.serviceOperatorRepo.findById(operatorId)
 				.orElseThrow(() -> new ResourceNotFoundException(
 						"Service operator with operatorId: " + operatorId + " cant be found."));
-		return this.modelMapper.map(serviceOperator, ServiceOperatorResponse.class);
+		return this.serviceOperatorMapper.toResponse(serviceOperator);
 	}
 
 	/**
@@ -67,10 +92,12 @@ public class ServiceOperatorServiceImpl implements ServiceOperatorService {
 	 * @return A list of {@link ServiceOperatorResponse} objects representing all
 	 *         service operators.
 	 */
+	@Transactional(readOnly = true)
 	@Override
 	public List<ServiceOperatorResponse> getAllOperators() {
+		this.replicaLagGuard.readFromReplica(ReplicaLagGuard.OPERATORS);
 		return this.serviceOperatorRepo.findAll().stream()
-				.map(e -> this.modelMapper.map(e, ServiceOperatorResponse.class)).toList();
+				.map(this.serviceOperatorMapper::toResponse).toList();
 	}
 
 	/**
@@ -91,7 +118,9 @@ public class ServiceOperatorServiceImpl implements ServiceOperatorService {
 						"Service operator with operatorId: " + operatorId + " cant be found."));
 		serviceOperatorDB.setOperatorName(serviceOperator.getOperatorName());
 		this.serviceOperatorRepo.save(serviceOperatorDB);
-		return this.modelMapper.map(serviceOperatorDB, ServiceOperatorResponse.class);
+		this.replicaLagGuard.recordWrite(ReplicaLagGuard.operator(operatorId), ReplicaLagGuard.OPERATORS);
+		this.appointmentCacheInvalidator.operatorRenamed();
+		return this.serviceOperatorMapper.toResponse(serviceOperatorDB);
 	}
 
 	/**
@@ -108,17 +137,31 @@ public class ServiceOperatorServiceImpl implements ServiceOperatorService {
 		ServiceOperator serviceOperatorDB = this.serviceOperatorRepo.findById(operatorId)
 				.orElseThrow(() -> new ResourceNotFoundException(
 						"Service operator with operatorId: " + operatorId + " cant be found."));
+		// Journaled bookings of the operator must reach the database before it goes
+		this.writeBehindBookingWriter.flushPending();
 		this.serviceOperatorRepo.delete(serviceOperatorDB);
+		this.slotOccupancyIndex.removeOperator(operatorId);
+		this.operatorLoadCounters.removeOperator(operatorId);
+		this.replicaLagGuard.recordWrite(ReplicaLagGuard.operator(operatorId), ReplicaLagGuard.OPERATORS);
+		this.appointmentCacheInvalidator.operatorsChanged();
 		return new ApiResponse("Operator with ID " + operatorId + " has been deleted successfully.");
 	}
 
 	/**
-	 * Generate a unique operator ID.
+	 * Retrieve the appointment load of every service operator. Served from the
+	 * in-memory {@link OperatorLoadCounters}, so the appointment table is not
+	 * read.
 	 *
-	 * @return A unique operator ID.
+	 * @param date The date to report the per-day count for.
+	 * @return A list of {@link OperatorLoadResponse} objects, one per operator,
+	 *         in operator ID order.
 	 */
-	private String generateOperatorId() {
-		int id = idCounter.incrementAndGet();
-		return OPERATOR_ID_PREFIX + String.format("%04d", id);
+	@Override
+	public List<OperatorLoadResponse> getOperatorLoad(LocalDate date) {
+		return this.slotOccupancyIndex.operatorIds().stream()
+				.map(operatorId -> new OperatorLoadResponse(operatorId,
+						this.operatorLoadCounters.appointmentsOf(operatorId), date,
+						this.operatorLoadCounters.appointmentsOf(operatorId, date)))
+				.toList();
 	}
 }
@@ -0,0 +1,96 @@
+package com.carserviceagency.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * A cache whose Redis tier is replaced by an in-process map, with loads that
+ * are held up while the test invalidates keys.
+ */
+class TwoTierCacheTests {
+
+	private ConcurrentMapCache remote;
+
+	private TwoTierCache cache;
+
+	@BeforeEach
+	void setUp() {
+		this.remote = new ConcurrentMapCache("test");
+		this.cache = new TwoTierCache("test", Caffeine.newBuilder().recordStats().build(), this.remote,
+				mock(CacheInvalidationBus.class), new CacheProperties.Spec(), key -> null);
+	}
+
+	@Test
+	void loadIsCachedWhenAnotherKeyIsInvalidatedMeanwhile() throws Exception {
+		this.cache.get("other", () -> "unrelated");
+
+		loadWhile("key", () -> {
+			this.cache.evict("other");
+			this.cache.evictLocal("other");
+			this.cache.put("third", "written");
+		});
+
+		assertNotNull(this.remote.get("key"));
+		assertEquals("loaded", this.cache.get("key", () -> "reloaded"));
+	}
+
+	@Test
+	void loadIsNotCachedWhenItsKeyIsEvictedMeanwhile() throws Exception {
+		loadWhile("key", () -> this.cache.evict("key"));
+
+		assertNull(this.remote.get("key"));
+		assertEquals("reloaded", this.cache.get("key", () -> "reloaded"));
+	}
+
+	@Test
+	void loadIsNotCachedWhenItsKeyIsEvictedByAnotherNodeMeanwhile() throws Exception {
+		loadWhile("key", () -> this.cache.evictLocal("key"));
+
+		assertNull(this.remote.get("key"));
+		assertEquals("reloaded", this.cache.get("key", () -> "reloaded"));
+	}
+
+	@Test
+	void loadDoesNotOverwriteAValueWrittenMeanwhile() throws Exception {
+		loadWhile("key", () -> this.cache.put("key", "written"));
+
+		assertEquals("written", this.cache.get("key", () -> "reloaded"));
+	}
+
+	@Test
+	void loadIsNotCachedWhenTheCacheIsClearedMeanwhile() throws Exception {
+		loadWhile("key", () -> this.cache.clearLocal());
+
+		assertNull(this.remote.get("key"));
+	}
+
+	/**
+	 * Load the key with a loader that returns {@code "loaded"} only after the
+	 * action has run.
+	 */
+	private void loadWhile(String key, Runnable action) throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch acted = new CountDownLatch(1);
+		CompletableFuture<Object> load = CompletableFuture.supplyAsync(() -> this.cache.get(key, () -> {
+			started.countDown();
+			acted.await(5, TimeUnit.SECONDS);
+			return "loaded";
+		}));
+		started.await(5, TimeUnit.SECONDS);
+		action.run();
+		acted.countDown();
+		assertEquals("loaded", load.get(5, TimeUnit.SECONDS));
+	}
+}
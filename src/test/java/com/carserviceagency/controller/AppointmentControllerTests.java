@@ -0,0 +1,146 @@
+package com.carserviceagency.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.carserviceagency.entities.AvailabilitySlot;
+import com.carserviceagency.exceptions.AppointmentException;
+import com.carserviceagency.exceptions.GlobalExceptionalHandler;
+import com.carserviceagency.payload.requests.CheckAvailabilityRequest;
+import com.carserviceagency.payload.response.AppointmentSummaryResponse;
+import com.carserviceagency.payload.response.AppointmentsOfOperatorResponse;
+import com.carserviceagency.payload.response.CheckAvailabilityResponse;
+import com.carserviceagency.service.AppointmentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * The availability and export endpoints, against a mocked service.
+ */
+class AppointmentControllerTests {
+
+	private static final LocalDate DATE = LocalDate.of(2024, 5, 6);
+
+	private AppointmentService appointmentService;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		// Configured the way Spring Boot configures the application's mapper
+		ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+				.build();
+		this.appointmentService = mock(AppointmentService.class);
+		AppointmentController controller = new AppointmentController();
+		ReflectionTestUtils.setField(controller, "appointmentService", this.appointmentService);
+		ReflectionTestUtils.setField(controller, "objectMapper", objectMapper);
+		this.mockMvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionalHandler())
+				.setMessageConverters(new MappingJackson2HttpMessageConverter(objectMapper))
+				.build();
+	}
+
+	@Test
+	void availabilityBindsTheQueryAndReturnsTheFreeRanges() throws Exception {
+		when(this.appointmentService.checkAvailability(any())).thenReturn(List.of(new CheckAvailabilityResponse("OP1",
+				DATE, List.of(new AvailabilitySlot(LocalTime.of(9, 0), LocalTime.of(10, 30)),
+						new AvailabilitySlot(LocalTime.of(11, 0), LocalTime.MIDNIGHT)))));
+
+		this.mockMvc.perform(get("/appointment/v1/availability")
+				.param("date", "2024-05-06")
+				.param("toDate", "2024-05-07")
+				.param("operatorId", "OP1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].operatorId").value("OP1"))
+				.andExpect(jsonPath("$[0].date").value("2024-05-06"))
+				.andExpect(jsonPath("$[0].slots[0].startTime").value("09:00:00"))
+				.andExpect(jsonPath("$[0].slots[0].endTime").value("10:30:00"))
+				.andExpect(jsonPath("$[0].slots[1].endTime").value("00:00:00"));
+
+		ArgumentCaptor<CheckAvailabilityRequest> request = ArgumentCaptor.forClass(CheckAvailabilityRequest.class);
+		verify(this.appointmentService).checkAvailability(request.capture());
+		assertEquals(DATE, request.getValue().getDate());
+		assertEquals(DATE.plusDays(1), request.getValue().getToDate());
+		assertEquals("OP1", request.getValue().getOperatorId());
+	}
+
+	@Test
+	void availabilityOfEveryOperatorLeavesTheOptionalParametersUnset() throws Exception {
+		when(this.appointmentService.checkAvailability(any())).thenReturn(List.of());
+
+		this.mockMvc.perform(get("/appointment/v1/availability").param("date", "2024-05-06"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").isEmpty());
+
+		ArgumentCaptor<CheckAvailabilityRequest> request = ArgumentCaptor.forClass(CheckAvailabilityRequest.class);
+		verify(this.appointmentService).checkAvailability(request.capture());
+		assertEquals(DATE, request.getValue().getDate());
+		assertNull(request.getValue().getToDate());
+		assertNull(request.getValue().getOperatorId());
+	}
+
+	@Test
+	void availabilityReportsAnInvalidRequest() throws Exception {
+		when(this.appointmentService.checkAvailability(any()))
+				.thenThrow(new AppointmentException("No operator found with ID: OP9"));
+
+		this.mockMvc.perform(get("/appointment/v1/availability")
+				.param("date", "2024-05-06")
+				.param("operatorId", "OP9"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.message").value("No operator found with ID: OP9"));
+	}
+
+	@Test
+	void exportWritesOneOperatorPerLine() throws Exception {
+		doAnswer(invocation -> {
+			Consumer<AppointmentsOfOperatorResponse> consumer = invocation.getArgument(0);
+			consumer.accept(new AppointmentsOfOperatorResponse("OP1", 1, "Ann",
+					List.of(new AppointmentSummaryResponse(7L, "Bob", DATE, LocalTime.of(9, 0), LocalTime.of(10, 0)))));
+			consumer.accept(new AppointmentsOfOperatorResponse("OP2", 0, "Cid", List.of()));
+			return null;
+		}).when(this.appointmentService).streamAppointmentsOfOperators(any());
+
+		MvcResult started = this.mockMvc.perform(get("/appointment/v1/operators/export"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = this.mockMvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType("application/x-ndjson"))
+				.andReturn().getResponse().getContentAsString();
+
+		String[] lines = body.split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0].startsWith("{\"operatorId\":\"OP1\""));
+		assertTrue(lines[0].contains("\"date\":\"2024-05-06\""));
+		assertTrue(lines[1].startsWith("{\"operatorId\":\"OP2\""));
+	}
+}
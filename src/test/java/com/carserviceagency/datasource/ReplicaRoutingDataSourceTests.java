@@ -0,0 +1,108 @@
+package com.carserviceagency.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Routing between a primary and two replicas, each an in-memory H2 database
+ * that knows its own name.
+ */
+class ReplicaRoutingDataSourceTests {
+
+	private static final Duration REPLICA_LAG = Duration.ofMillis(300);
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate readOnly;
+
+	private TransactionTemplate readWrite;
+
+	private ReplicaLagGuard guard;
+
+	@BeforeEach
+	void setUp() {
+		DataSource primary = database("primary");
+		List<DataSource> replicas = List.of(database("replica-a"), database("replica-b"));
+		DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary, replicas));
+		DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.readWrite = new TransactionTemplate(transactionManager);
+		this.guard = new ReplicaLagGuard(REPLICA_LAG);
+	}
+
+	@Test
+	void readOnlyTransactionsThatOptInReadFromReplicasInTurn() {
+		String first = this.readOnly.execute(status -> readWith(() -> this.guard.readFromReplica("customer:x")));
+		String second = this.readOnly.execute(status -> readWith(() -> this.guard.readFromReplica("customer:x")));
+
+		assertTrue(first.startsWith("replica"));
+		assertTrue(second.startsWith("replica"));
+		assertFalse(first.equals(second));
+	}
+
+	@Test
+	void writesAndOtherReadsStayOnThePrimary() {
+		assertEquals("primary", this.readWrite.execute(status -> readWith(() -> this.guard.readFromReplica())));
+		assertEquals("primary", this.readOnly.execute(status -> databaseName()));
+		assertEquals("primary", databaseName());
+	}
+
+	@Test
+	void readsOfRecentlyWrittenScopesStayOnThePrimaryUntilTheLagPassed() throws InterruptedException {
+		this.guard.recordWrite(ReplicaLagGuard.customer("x"));
+
+		assertEquals("primary", this.readOnly.execute(status -> readWith(
+				() -> this.guard.readFromReplica(ReplicaLagGuard.customer("x")))));
+		assertEquals("primary", this.readOnly.execute(status -> readWith(
+				() -> this.guard.readFromReplica(ReplicaLagGuard.ALL))));
+		assertTrue(this.readOnly.execute(status -> readWith(
+				() -> this.guard.readFromReplica(ReplicaLagGuard.customer("y")))).startsWith("replica"));
+
+		Thread.sleep(REPLICA_LAG.toMillis() + 100);
+		assertTrue(this.readOnly.execute(status -> readWith(
+				() -> this.guard.readFromReplica(ReplicaLagGuard.customer("x")))).startsWith("replica"));
+	}
+
+	@Test
+	void replicaChoiceEndsWithTheTransaction() {
+		this.readOnly.execute(status -> readWith(() -> this.guard.readFromReplica()));
+
+		assertEquals("primary", this.readOnly.execute(status -> databaseName()));
+	}
+
+	private String readWith(Supplier<Boolean> routing) {
+		routing.get();
+		return databaseName();
+	}
+
+	private String databaseName() {
+		return this.jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+	}
+
+	private static DataSource database(String name) {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS node (name VARCHAR(32))");
+		jdbcTemplate.update("DELETE FROM node");
+		jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+		return dataSource;
+	}
+}
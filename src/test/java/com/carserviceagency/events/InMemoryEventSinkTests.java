@@ -0,0 +1,61 @@
+package com.carserviceagency.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.exceptions.AppointmentException;
+import com.carserviceagency.payload.response.AppointmentEventResponse;
+
+class InMemoryEventSinkTests {
+
+	@Test
+	void consumerResumesAfterTheLastOffsetItRead() {
+		InMemoryEventSink sink = new InMemoryEventSink(10);
+		for (long id = 1; id <= 5; id++) {
+			sink.publish(event(id));
+		}
+
+		List<AppointmentEventResponse> first = sink.read(null, 2);
+		List<AppointmentEventResponse> rest = sink.read(first.get(1).getOffset(), 10);
+
+		assertEquals(List.of(1L, 2L), eventIds(first));
+		assertEquals(List.of(3L, 4L, 5L), eventIds(rest));
+		assertEquals(List.of(), sink.read(rest.get(2).getOffset(), 10));
+	}
+
+	@Test
+	void consumerThatFellBehindSkipsTrimmedEvents() {
+		InMemoryEventSink sink = new InMemoryEventSink(3);
+		String firstOffset = sink.publish(event(1));
+		for (long id = 2; id <= 6; id++) {
+			sink.publish(event(id));
+		}
+
+		assertEquals(List.of(4L, 5L, 6L), eventIds(sink.read(null, 10)));
+		assertEquals(List.of(4L, 5L, 6L), eventIds(sink.read(firstOffset, 10)));
+	}
+
+	@Test
+	void invalidOffsetIsRejected() {
+		InMemoryEventSink sink = new InMemoryEventSink(3);
+
+		assertThrows(AppointmentException.class, () -> sink.read("1700000000000-0", 10));
+	}
+
+	private static AppointmentEvent event(long eventId) {
+		AppointmentEvent event = new AppointmentEvent();
+		event.setEventId(eventId);
+		event.setType(AppointmentEvent.Type.BOOKED);
+		event.setOperatorId("OP0001");
+		return event;
+	}
+
+	private static List<Long> eventIds(List<AppointmentEventResponse> events) {
+		return events.stream().map(AppointmentEventResponse::getEventId).toList();
+	}
+}
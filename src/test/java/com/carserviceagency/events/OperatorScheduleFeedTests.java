@@ -0,0 +1,173 @@
+package com.carserviceagency.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.carserviceagency.entities.AppointmentEvent;
+import com.carserviceagency.scheduling.SlotOccupancyIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The feed with a single writer thread, fed from an in-memory sink, writing to
+ * emitters that record what is sent to them.
+ */
+class OperatorScheduleFeedTests {
+
+	private static final String OPERATOR_ID = "OP0001";
+
+	private InMemoryEventSink sink;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private OperatorScheduleFeed feed;
+
+	@BeforeEach
+	void setUp() {
+		AppointmentEventProperties properties = new AppointmentEventProperties();
+		properties.getFeed().setWriterThreads(1);
+		properties.getFeed().setWriteTimeout(Duration.ofMillis(100));
+		SlotOccupancyIndex slotOccupancyIndex = mock(SlotOccupancyIndex.class);
+		when(slotOccupancyIndex.operatorIds()).thenReturn(new TreeSet<>(List.of(OPERATOR_ID)));
+		this.sink = new InMemoryEventSink(100);
+		this.meterRegistry = new SimpleMeterRegistry();
+
+		this.feed = new OperatorScheduleFeed();
+		ReflectionTestUtils.setField(this.feed, "appointmentEventSink", this.sink);
+		ReflectionTestUtils.setField(this.feed, "properties", properties);
+		ReflectionTestUtils.setField(this.feed, "slotOccupancyIndex", slotOccupancyIndex);
+		ReflectionTestUtils.setField(this.feed, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+		ReflectionTestUtils.setField(this.feed, "meterRegistry", this.meterRegistry);
+		this.feed.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		this.feed.close();
+	}
+
+	@Test
+	void stalledSubscriberIsDroppedWithoutHoldingUpTheOthers() throws Exception {
+		CountDownLatch unblock = new CountDownLatch(1);
+		RecordingEmitter stalled = new RecordingEmitter(unblock);
+		RecordingEmitter first = new RecordingEmitter(null);
+		RecordingEmitter second = new RecordingEmitter(null);
+		// The only writer thread gets stuck on the first heartbeat to the stalled subscriber
+		this.feed.register(stalled, OPERATOR_ID, null);
+		this.feed.register(first, OPERATOR_ID, null);
+		this.feed.register(second, OPERATOR_ID, null);
+
+		this.sink.publish(event(1L));
+		this.feed.poll();
+
+		assertTrue(await(() -> {
+			this.feed.dropStalledSubscribers();
+			return first.received("BOOKED") && second.received("BOOKED");
+		}), "the other subscribers received the change");
+		assertEquals(1.0, this.meterRegistry.counter("appointment.feed.stalls").count());
+		assertEquals(2.0, this.meterRegistry.get("appointment.feed.subscribers").gauge().value());
+
+		unblock.countDown();
+		assertTrue(await(() -> stalled.completed), "the stalled subscriber is disconnected once its write returns");
+		assertFalse(stalled.received("BOOKED"));
+	}
+
+	@Test
+	void subscriberWhoseWritesFinishInTimeIsKept() throws Exception {
+		RecordingEmitter subscriber = new RecordingEmitter(null);
+		this.feed.register(subscriber, OPERATOR_ID, LocalDate.of(2024, 5, 6));
+
+		this.sink.publish(event(1L));
+		this.feed.poll();
+
+		assertTrue(await(() -> subscriber.received("BOOKED")));
+		this.feed.dropStalledSubscribers();
+		assertEquals(0.0, this.meterRegistry.counter("appointment.feed.stalls").count());
+		assertEquals(1.0, this.meterRegistry.get("appointment.feed.subscribers").gauge().value());
+		assertFalse(subscriber.completed);
+	}
+
+	private static boolean await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean()) {
+			if (System.nanoTime() > deadline) {
+				return false;
+			}
+			Thread.sleep(20);
+		}
+		return true;
+	}
+
+	private static AppointmentEvent event(long eventId) {
+		AppointmentEvent event = new AppointmentEvent();
+		event.setEventId(eventId);
+		event.setType(AppointmentEvent.Type.BOOKED);
+		event.setOperatorId(OPERATOR_ID);
+		event.setDate(LocalDate.of(2024, 5, 6));
+		event.setStartTime(LocalTime.of(9, 0));
+		event.setEndTime(LocalTime.of(10, 0));
+		return event;
+	}
+
+	/**
+	 * Records the events written to it instead of writing to a response,
+	 * optionally blocking every write until released, like a client that stopped
+	 * reading.
+	 */
+	private static final class RecordingEmitter extends SseEmitter {
+
+		private final CountDownLatch unblock;
+
+		private final List<String> sent = new CopyOnWriteArrayList<>();
+
+		private volatile boolean completed;
+
+		private RecordingEmitter(CountDownLatch unblock) {
+			this.unblock = unblock;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			if (this.unblock != null) {
+				try {
+					this.unblock.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			StringBuilder text = new StringBuilder();
+			builder.build().forEach(part -> text.append(part.getData()));
+			this.sent.add(text.toString());
+		}
+
+		@Override
+		public synchronized void complete() {
+			this.completed = true;
+		}
+
+		private boolean received(String eventName) {
+			return this.sent.stream().anyMatch(text -> text.contains("event:" + eventName + "\n"));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package com.carserviceagency.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Recovery of the booking journal. A crash is simulated by opening the file
+ * again without closing the journal that wrote it, which sees exactly what a
+ * restarted process would.
+ */
+class BookingJournalTests {
+
+	private static final int SIZE = 64 * 1024;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void appendedBookingsAreReadBackAfterACrash() throws IOException {
+		BookingJournal crashed = open();
+		crashed.append(booking(1, "Alice"));
+		crashed.append(booking(2, null));
+
+		List<JournaledBooking> recovered = open().unflushed();
+
+		assertEquals(2, recovered.size());
+		assertEquals(1, recovered.get(0).getAppointmentId());
+		assertEquals("OP0001", recovered.get(0).getOperatorId());
+		assertEquals("Alice", recovered.get(0).getCustomerName());
+		assertEquals(LocalDate.of(2024, 1, 1), recovered.get(0).getDate());
+		assertEquals(LocalTime.of(10, 0), recovered.get(0).getStartTime());
+		assertEquals(LocalTime.of(10, 30), recovered.get(0).getEndTime());
+		assertNull(recovered.get(1).getCustomerName());
+	}
+
+	@Test
+	void flushedBookingsAreNotReadBackAfterACrash() throws IOException {
+		BookingJournal crashed = open();
+		for (long id = 1; id <= 3; id++) {
+			crashed.append(booking(id, "Alice"));
+		}
+		crashed.markFlushed(crashed.unflushed().get(1));
+
+		List<JournaledBooking> recovered = open().unflushed();
+
+		assertEquals(1, recovered.size());
+		assertEquals(3, recovered.get(0).getAppointmentId());
+	}
+
+	@Test
+	void tornRecordEndsTheJournalAndIsOverwritten() throws IOException {
+		BookingJournal crashed = open();
+		crashed.append(booking(1, "Alice"));
+		crashed.append(booking(2, "Bob"));
+		long tornAt = crashed.unflushed().get(0).getEndOffset();
+		// The last bytes of the second record never made it
+		try (FileChannel channel = FileChannel.open(path(), StandardOpenOption.WRITE)) {
+			channel.write(ByteBuffer.wrap(new byte[] { 0x7f, 0x7f }),
+					crashed.unflushed().get(1).getEndOffset() - 2);
+		}
+
+		BookingJournal restarted = open();
+		assertEquals(List.of(1L), ids(restarted.unflushed()));
+		assertEquals(tornAt, restarted.unflushed().get(0).getEndOffset());
+
+		restarted.append(booking(3, "Carol"));
+		assertEquals(List.of(1L, 3L), ids(open().unflushed()));
+	}
+
+	@Test
+	void recordsOfADrainedJournalAreNotReadBackAfterItStartsOver() throws IOException {
+		BookingJournal crashed = open();
+		crashed.append(booking(1, "A customer with a long name"));
+		crashed.append(booking(2, "Bob"));
+		crashed.markFlushed(crashed.unflushed().get(1));
+		assertTrue(crashed.resetIfDrained());
+		// Shorter than the first record, so the second one is still in the file after it
+		crashed.append(booking(3, "Al"));
+
+		assertEquals(List.of(3L), ids(open().unflushed()));
+	}
+
+	@Test
+	void journalWithUnflushedBookingsDoesNotStartOver() throws IOException {
+		BookingJournal journal = open();
+		journal.append(booking(1, "Alice"));
+
+		assertFalse(journal.resetIfDrained());
+		assertEquals(List.of(1L), ids(journal.unflushed()));
+	}
+
+	@Test
+	void fullJournalRejectsAppends() throws IOException {
+		BookingJournal journal = BookingJournal.open(path(), BookingJournal.HEADER_SIZE + 64, false);
+
+		assertTrue(journal.append(booking(1, "Alice")));
+		assertFalse(journal.append(booking(2, "Bob")));
+		assertEquals(List.of(1L), ids(journal.unflushed()));
+	}
+
+	private BookingJournal open() throws IOException {
+		return BookingJournal.open(path(), SIZE, false);
+	}
+
+	private Path path() {
+		return this.directory.resolve("booking.journal");
+	}
+
+	private static JournaledBooking booking(long appointmentId, String customerName) {
+		return new JournaledBooking(appointmentId, "OP0001", customerName, LocalDate.of(2024, 1, 1),
+				LocalTime.of(10, 0), LocalTime.of(10, 30));
+	}
+
+	private static List<Long> ids(List<JournaledBooking> bookings) {
+		return bookings.stream().map(JournaledBooking::getAppointmentId).toList();
+	}
+}
@@ -0,0 +1,239 @@
+package com.carserviceagency.journal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import com.carserviceagency.cache.AppointmentCacheInvalidator;
+import com.carserviceagency.datasource.ReplicaLagGuard;
+import com.carserviceagency.entities.Appointment;
+import com.carserviceagency.entities.ServiceOperator;
+import com.carserviceagency.events.AppointmentOutbox;
+import com.carserviceagency.repository.AppointmentRepo;
+import com.carserviceagency.repository.ServiceOperatorRepo;
+import com.carserviceagency.scheduling.OperatorLoadCounters;
+import com.carserviceagency.scheduling.SlotOccupancyIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * The writer against an in-memory H2 appointment table, with a journal left
+ * behind by a crash simulated as in {@link BookingJournalTests}.
+ */
+class WriteBehindBookingWriterTests {
+
+	private static final int SIZE = 64 * 1024;
+
+	private static final AtomicInteger DATABASES = new AtomicInteger();
+
+	private static final String OPERATOR_ID = "OP0001";
+
+	private static final LocalDate DATE = LocalDate.of(2024, 5, 6);
+
+	@TempDir
+	Path directory;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private WriteBehindProperties properties;
+
+	private ServiceOperatorRepo serviceOperatorRepo;
+
+	private AppointmentOutbox appointmentOutbox;
+
+	private SimpleMeterRegistry meterRegistry;
+
+	private ObjectProvider<SlotOccupancyIndex> slotOccupancyIndexProvider;
+
+	private ObjectProvider<OperatorLoadCounters> operatorLoadCountersProvider;
+
+	private final AtomicLong nextAppointmentId = new AtomicLong(1000);
+
+	private WriteBehindBookingWriter writer;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(
+				"jdbc:h2:mem:write-behind-" + DATABASES.incrementAndGet() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.execute("CREATE TABLE appointment (appointment_id BIGINT PRIMARY KEY, "
+				+ "customer_name VARCHAR(255), date DATE, start_time TIME, end_time TIME, operator_id VARCHAR(255), "
+				+ "version BIGINT, CONSTRAINT uk_operator_slot UNIQUE (operator_id, date, start_time))");
+
+		this.properties = new WriteBehindProperties();
+		this.properties.setJournal(this.directory.resolve("booking.journal"));
+		this.properties.setJournalSize(DataSize.ofBytes(SIZE));
+		this.serviceOperatorRepo = mock(ServiceOperatorRepo.class);
+		this.appointmentOutbox = mock(AppointmentOutbox.class);
+		this.meterRegistry = new SimpleMeterRegistry();
+		this.slotOccupancyIndexProvider = mock(ObjectProvider.class);
+		this.operatorLoadCountersProvider = mock(ObjectProvider.class);
+
+		this.writer = new WriteBehindBookingWriter();
+		ReflectionTestUtils.setField(this.writer, "properties", this.properties);
+		ReflectionTestUtils.setField(this.writer, "jdbcTemplate", this.jdbcTemplate);
+		ReflectionTestUtils.setField(this.writer, "transactionManager", new DataSourceTransactionManager(dataSource));
+		ReflectionTestUtils.setField(this.writer, "entityManagerFactory", entityManagerFactory());
+		ReflectionTestUtils.setField(this.writer, "serviceOperatorRepo", this.serviceOperatorRepo);
+		ReflectionTestUtils.setField(this.writer, "appointmentOutbox", this.appointmentOutbox);
+		ReflectionTestUtils.setField(this.writer, "appointmentCacheInvalidator",
+				mock(AppointmentCacheInvalidator.class));
+		ReflectionTestUtils.setField(this.writer, "replicaLagGuard", new ReplicaLagGuard(Duration.ofSeconds(1)));
+		ReflectionTestUtils.setField(this.writer, "meterRegistry", this.meterRegistry);
+		ReflectionTestUtils.setField(this.writer, "slotOccupancyIndex", this.slotOccupancyIndexProvider);
+		ReflectionTestUtils.setField(this.writer, "operatorLoadCounters", this.operatorLoadCountersProvider);
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		this.writer.close();
+	}
+
+	@Test
+	void startupReplaysTheJournalOnceBeforeTheIndexIsWarmed() throws IOException {
+		// Booking 2 was inserted before the crash but not yet marked flushed, booking 3
+		// lost its slot to another node's appointment 100
+		insert(2, "09:00", "10:00");
+		insert(100, "11:00", "12:00");
+		BookingJournal crashed = BookingJournal.open(this.properties.getJournal(), SIZE, false);
+		crashed.append(booking(1, "08:00", "09:00"));
+		crashed.append(booking(2, "09:00", "10:00"));
+		crashed.append(booking(3, "11:00", "13:00"));
+
+		this.writer.init();
+
+		assertEquals(List.of(1L, 2L, 100L), appointmentIds());
+		assertEquals(1.0, this.meterRegistry.counter("appointment.journal.rejected").count());
+		verify(this.serviceOperatorRepo).adjustNumberOfAppointments(OPERATOR_ID, 1);
+		verify(this.appointmentOutbox).journaled(argThat(bookings -> bookings.stream()
+				.map(JournaledBooking::getAppointmentId).toList().equals(List.of(1L))));
+		verifyNoInteractions(this.slotOccupancyIndexProvider, this.operatorLoadCountersProvider);
+		assertTrue(BookingJournal.open(this.properties.getJournal(), SIZE, false).unflushed().isEmpty());
+
+		// The index warmed afterwards holds only what the database kept
+		SlotOccupancyIndex index = warmedIndex();
+		assertFalse(index.isFree(OPERATOR_ID, DATE, time("08:00"), time("09:00")));
+		assertFalse(index.isFree(OPERATOR_ID, DATE, time("11:00"), time("12:00")));
+		assertTrue(index.isFree(OPERATOR_ID, DATE, time("12:00"), time("13:00")));
+	}
+
+	@Test
+	void rejectedBookingIsReleasedFromTheWarmIndex() throws IOException {
+		this.properties.setEnabled(true);
+		this.writer.init();
+		SlotOccupancyIndex index = new SlotOccupancyIndex();
+		OperatorLoadCounters operatorLoadCounters = mock(OperatorLoadCounters.class);
+		when(this.slotOccupancyIndexProvider.getObject()).thenReturn(index);
+		when(this.operatorLoadCountersProvider.getObject()).thenReturn(operatorLoadCounters);
+
+		assertTrue(index.reserve(OPERATOR_ID, DATE, time("09:00"), time("11:00")));
+		Appointment appointment = appointment("09:00", "11:00");
+		this.writer.append(appointment);
+		// Another node books the same start time before the flush
+		insert(100, "09:00", "10:00");
+
+		this.writer.flush();
+
+		assertEquals(List.of(100L), appointmentIds());
+		assertEquals(1.0, this.meterRegistry.counter("appointment.journal.rejected").count());
+		assertTrue(index.isFree(OPERATOR_ID, DATE, time("09:00"), time("11:00")));
+		verify(operatorLoadCounters).cancelled(OPERATOR_ID, DATE);
+		verify(this.appointmentOutbox, never()).journaled(any());
+		assertTrue(BookingJournal.open(this.properties.getJournal(), SIZE, false).unflushed().isEmpty());
+	}
+
+	private EntityManagerFactory entityManagerFactory() {
+		SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class, RETURNS_DEEP_STUBS);
+		BeforeExecutionGenerator idGenerator = mock(BeforeExecutionGenerator.class);
+		when(idGenerator.generate(any(), any(), any(), any()))
+				.thenAnswer(invocation -> this.nextAppointmentId.getAndIncrement());
+		when(sessionFactory.getMappingMetamodel().getEntityDescriptor(Appointment.class).getGenerator())
+				.thenReturn(idGenerator);
+		when(sessionFactory.openStatelessSession()).thenAnswer(invocation -> mock(StatelessSession.class,
+				withSettings().extraInterfaces(SharedSessionContractImplementor.class)));
+		EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+		when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+		return entityManagerFactory;
+	}
+
+	private SlotOccupancyIndex warmedIndex() {
+		ServiceOperatorRepo operators = mock(ServiceOperatorRepo.class);
+		when(operators.findAllOperatorIds()).thenReturn(List.of(OPERATOR_ID));
+		AppointmentRepo appointments = mock(AppointmentRepo.class);
+		when(appointments.findAllSlots()).thenReturn(this.jdbcTemplate.query(
+				"SELECT operator_id, date, start_time, end_time FROM appointment",
+				(row, rowNum) -> new Object[] { row.getString(1), row.getObject(2, LocalDate.class),
+						row.getObject(3, LocalTime.class), row.getObject(4, LocalTime.class) }));
+		SlotOccupancyIndex index = new SlotOccupancyIndex();
+		ReflectionTestUtils.setField(index, "serviceOperatorRepo", operators);
+		ReflectionTestUtils.setField(index, "appointmentRepo", appointments);
+		index.warmUp();
+		return index;
+	}
+
+	private void insert(long appointmentId, String startTime, String endTime) {
+		this.jdbcTemplate.update("INSERT INTO appointment (appointment_id, customer_name, date, start_time, end_time, "
+				+ "operator_id, version) VALUES (?, ?, ?, ?, ?, ?, 0)", appointmentId, "Alice", DATE, time(startTime),
+				time(endTime), OPERATOR_ID);
+	}
+
+	private List<Long> appointmentIds() {
+		return this.jdbcTemplate.queryForList("SELECT appointment_id FROM appointment ORDER BY appointment_id",
+				Long.class);
+	}
+
+	private static JournaledBooking booking(long appointmentId, String startTime, String endTime) {
+		return new JournaledBooking(appointmentId, OPERATOR_ID, "Alice", DATE, time(startTime), time(endTime));
+	}
+
+	private static Appointment appointment(String startTime, String endTime) {
+		ServiceOperator operator = new ServiceOperator();
+		operator.setOperatorId(OPERATOR_ID);
+		Appointment appointment = new Appointment();
+		appointment.setOperator(operator);
+		appointment.setCustomerName("Alice");
+		appointment.setDate(DATE);
+		appointment.setStartTime(time(startTime));
+		appointment.setEndTime(time(endTime));
+		return appointment;
+	}
+
+	private static LocalTime time(String time) {
+		return LocalTime.parse(time);
+	}
+}
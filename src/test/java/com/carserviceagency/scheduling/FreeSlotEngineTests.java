@@ -0,0 +1,104 @@
+package com.carserviceagency.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.carserviceagency.entities.AvailabilitySlot;
+
+class FreeSlotEngineTests {
+
+	private static final String OPERATOR_ID = "OP0001";
+
+	private static final LocalDate DATE = LocalDate.of(2024, 5, 6);
+
+	private SlotOccupancyIndex index;
+
+	private FreeSlotEngine engine;
+
+	@BeforeEach
+	void setUp() {
+		this.index = new SlotOccupancyIndex();
+		this.engine = new FreeSlotEngine();
+		ReflectionTestUtils.setField(this.engine, "slotOccupancyIndex", this.index);
+		openingHours(8, 18);
+	}
+
+	@Test
+	void emptyDayIsFreeFromOpeningToClosing() {
+		assertEquals(List.of("08:00-18:00"), freeSlots());
+	}
+
+	@Test
+	void adjacentBookingsLeaveNoGapBetweenThem() {
+		book("09:00", "10:00");
+		book("10:00", "11:00");
+
+		assertEquals(List.of("08:00-09:00", "11:00-18:00"), freeSlots());
+	}
+
+	@Test
+	void bookingsOverlappingOpeningOrClosingAreCutOff() {
+		book("07:00", "09:00");
+		book("17:00", "19:00");
+
+		assertEquals(List.of("09:00-17:00"), freeSlots());
+	}
+
+	@Test
+	void bookingsOutsideOpeningHoursAreIgnored() {
+		book("06:00", "07:00");
+		book("19:00", "20:00");
+
+		assertEquals(List.of("08:00-18:00"), freeSlots());
+	}
+
+	@Test
+	void freeRangeUntilMidnightEndsAtMidnight() {
+		openingHours(0, 24);
+		book("00:00", "01:00");
+		book("12:00", "13:30");
+
+		assertEquals(List.of("01:00-12:00", "13:30-00:00"), freeSlots());
+	}
+
+	@Test
+	void bookingUntilMidnightLeavesNothingAfterIt() {
+		openingHours(0, 24);
+		book("22:00", "00:00");
+
+		assertEquals(List.of("00:00-22:00"), freeSlots());
+	}
+
+	@Test
+	void fullyBookedDayHasNoFreeRange() {
+		book("08:00", "13:00");
+		book("13:00", "18:00");
+
+		assertTrue(freeSlots().isEmpty());
+	}
+
+	private void openingHours(int openingHour, int closingHour) {
+		ReflectionTestUtils.setField(this.engine, "openingHour", openingHour);
+		ReflectionTestUtils.setField(this.engine, "closingHour", closingHour);
+	}
+
+	private void book(String startTime, String endTime) {
+		assertTrue(this.index.reserve(OPERATOR_ID, DATE, LocalTime.parse(startTime), LocalTime.parse(endTime)));
+	}
+
+	private List<String> freeSlots() {
+		return this.engine.freeSlots(OPERATOR_ID, DATE).stream().map(FreeSlotEngineTests::format).toList();
+	}
+
+	private static String format(AvailabilitySlot slot) {
+		return slot.getStartTime() + "-" + slot.getEndTime();
+	}
+}
@@ -0,0 +1,95 @@
+package com.carserviceagency.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class OperatorAssignerTests {
+
+	private static final LocalDate DATE = LocalDate.of(2024, 5, 6);
+
+	private SlotOccupancyIndex slotOccupancyIndex;
+
+	private OperatorLoadCounters operatorLoadCounters;
+
+	private OperatorAssigner assigner;
+
+	@BeforeEach
+	void setUp() {
+		this.slotOccupancyIndex = mock(SlotOccupancyIndex.class);
+		this.operatorLoadCounters = mock(OperatorLoadCounters.class);
+		this.assigner = new OperatorAssigner();
+		ReflectionTestUtils.setField(this.assigner, "slotOccupancyIndex", this.slotOccupancyIndex);
+		ReflectionTestUtils.setField(this.assigner, "operatorLoadCounters", this.operatorLoadCounters);
+	}
+
+	@Test
+	void operatorsComeLeastLoadedOnTheDateFirstThenLeastLoadedOverall() {
+		Random random = new Random(42);
+		List<String> operatorIds = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			String operatorId = String.format("OP%04d", i);
+			operatorIds.add(operatorId);
+			// Distinct overall loads, so the tie-break never decides
+			load(operatorId, random.nextInt(5), 1000 + i * 7 % 200);
+		}
+		operators(operatorIds);
+
+		List<String> expected = new ArrayList<>(operatorIds);
+		expected.sort(Comparator.comparingLong((String id) -> this.operatorLoadCounters.appointmentsOf(id, DATE))
+				.thenComparingLong(this.operatorLoadCounters::appointmentsOf));
+		assertEquals(expected, drain(this.assigner.candidatesFor(DATE)));
+	}
+
+	@Test
+	void equallyLoadedOperatorsAreOfferedFromARotatingStart() {
+		List<String> operatorIds = List.of("OP0001", "OP0002", "OP0003");
+		operatorIds.forEach(operatorId -> load(operatorId, 1, 1));
+		operators(operatorIds);
+
+		assertEquals(List.of("OP0001", "OP0002", "OP0003"), drain(this.assigner.candidatesFor(DATE)));
+		assertEquals(List.of("OP0002", "OP0003", "OP0001"), drain(this.assigner.candidatesFor(DATE)));
+		assertEquals(List.of("OP0003", "OP0001", "OP0002"), drain(this.assigner.candidatesFor(DATE)));
+	}
+
+	@Test
+	void noOperatorsMeansNoCandidates() {
+		operators(List.of());
+
+		Iterator<String> candidates = this.assigner.candidatesFor(DATE);
+
+		assertFalse(candidates.hasNext());
+		assertThrows(NoSuchElementException.class, candidates::next);
+	}
+
+	private void operators(List<String> operatorIds) {
+		when(this.slotOccupancyIndex.operatorIds()).thenReturn(new TreeSet<>(operatorIds));
+	}
+
+	private void load(String operatorId, long onDate, long overall) {
+		when(this.operatorLoadCounters.appointmentsOf(operatorId, DATE)).thenReturn(onDate);
+		when(this.operatorLoadCounters.appointmentsOf(operatorId)).thenReturn(overall);
+	}
+
+	private static List<String> drain(Iterator<String> candidates) {
+		List<String> operatorIds = new ArrayList<>();
+		candidates.forEachRemaining(operatorIds::add);
+		assertThrows(NoSuchElementException.class, candidates::next);
+		return operatorIds;
+	}
+}
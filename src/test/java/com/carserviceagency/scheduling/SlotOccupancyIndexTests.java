@@ -0,0 +1,145 @@
+package com.carserviceagency.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.carserviceagency.scheduling.SlotOccupancyIndex.DaySchedule;
+
+/**
+ * The index on its own, without warming it up from a database.
+ */
+class SlotOccupancyIndexTests {
+
+	private static final String OPERATOR_ID = "OP0001";
+
+	private static final LocalDate DATE = LocalDate.of(2024, 5, 6);
+
+	private final SlotOccupancyIndex index = new SlotOccupancyIndex();
+
+	@Test
+	void adjacentRangesDoNotOverlap() {
+		assertTrue(reserve("09:00", "10:00"));
+
+		assertTrue(reserve("10:00", "11:00"));
+		assertTrue(reserve("08:00", "09:00"));
+		assertEquals(List.of(List.of(480, 540), List.of(540, 600), List.of(600, 660)), ranges());
+	}
+
+	@Test
+	void overlapAtEitherEndIsRejected() {
+		assertTrue(reserve("09:00", "10:00"));
+
+		assertFalse(reserve("08:30", "09:01"));
+		assertFalse(reserve("09:59", "10:30"));
+		assertFalse(reserve("08:00", "11:00"));
+		assertFalse(reserve("09:15", "09:45"));
+		assertFalse(reserve("09:00", "10:00"));
+		assertEquals(List.of(List.of(540, 600)), ranges());
+	}
+
+	@Test
+	void endAtMidnightHoldsTheRestOfTheDay() {
+		assertTrue(reserve("23:00", "00:00"));
+
+		assertFalse(reserve("23:59", null));
+		assertFalse(reserve("23:30", "23:45"));
+		assertTrue(reserve("22:00", "23:00"));
+		assertEquals(List.of(List.of(1320, 1380), List.of(1380, SlotOccupancyIndex.MINUTES_PER_DAY)), ranges());
+		assertTrue(this.index.isFree(OPERATOR_ID, DATE.plusDays(1), LocalTime.of(0, 0), LocalTime.of(1, 0)));
+	}
+
+	@Test
+	void endMinuteRoundsUpAndTreatsEarlierEndsAsMidnight() {
+		assertEquals(541, SlotOccupancyIndex.endMinute(LocalTime.of(9, 0), LocalTime.of(9, 0, 30)));
+		assertEquals(600, SlotOccupancyIndex.endMinute(LocalTime.of(9, 0), LocalTime.of(10, 0)));
+		assertEquals(SlotOccupancyIndex.MINUTES_PER_DAY,
+				SlotOccupancyIndex.endMinute(LocalTime.of(9, 0), LocalTime.MIDNIGHT));
+		assertEquals(SlotOccupancyIndex.MINUTES_PER_DAY,
+				SlotOccupancyIndex.endMinute(LocalTime.of(9, 0), LocalTime.of(8, 0)));
+		assertEquals(SlotOccupancyIndex.MINUTES_PER_DAY, SlotOccupancyIndex.endMinute(LocalTime.of(9, 0), null));
+	}
+
+	@Test
+	void moveOntoPartOfItsOwnRangeSucceeds() {
+		assertTrue(reserve("09:00", "10:00"));
+
+		assertTrue(this.index.move(OPERATOR_ID, DATE, time("09:00"), time("10:00"), DATE, time("09:30"),
+				time("10:30")));
+		assertEquals(List.of(List.of(570, 630)), ranges());
+	}
+
+	@Test
+	void moveOntoAnotherBookingLeavesTheIndexUnchanged() {
+		assertTrue(reserve("09:00", "10:00"));
+		assertTrue(reserve("10:30", "11:00"));
+
+		assertFalse(this.index.move(OPERATOR_ID, DATE, time("09:00"), time("10:00"), DATE, time("09:45"),
+				time("10:45")));
+		assertEquals(List.of(List.of(540, 600), List.of(630, 660)), ranges());
+	}
+
+	@Test
+	void moveToAnotherDateFreesTheOldRange() {
+		assertTrue(reserve("09:00", "10:00"));
+
+		assertTrue(this.index.move(OPERATOR_ID, DATE, time("09:00"), time("10:00"), DATE.plusDays(1), time("09:00"),
+				time("10:00")));
+		assertEquals(List.of(), ranges());
+		assertFalse(this.index.isFree(OPERATOR_ID, DATE.plusDays(1), time("09:30"), time("09:45")));
+	}
+
+	@Test
+	void releaseOfARangeThatIsNotBookedChangesNothing() {
+		assertTrue(reserve("09:00", "10:00"));
+
+		this.index.release(OPERATOR_ID, DATE, time("09:00"), time("09:30"));
+		this.index.release(OPERATOR_ID, DATE, time("11:00"), time("12:00"));
+		assertEquals(List.of(List.of(540, 600)), ranges());
+
+		this.index.release(OPERATOR_ID, DATE, time("09:00"), time("10:00"));
+		assertTrue(reserve("09:15", "09:45"));
+	}
+
+	@Test
+	void dayScheduleStaysSortedAndIsNotChangedInPlace() {
+		DaySchedule first = DaySchedule.EMPTY.with(600, 660);
+		DaySchedule second = first.with(480, 540).with(540, 600);
+
+		assertEquals(1, first.size());
+		assertEquals(3, second.size());
+		assertEquals(480, second.startAt(0));
+		assertEquals(540, second.startAt(1));
+		assertEquals(660, second.endAt(2));
+		assertSame(second, second.without(540, 599));
+		assertEquals(2, second.without(540, 600).size());
+		assertFalse(DaySchedule.EMPTY.overlaps(0, SlotOccupancyIndex.MINUTES_PER_DAY));
+		assertFalse(second.overlaps(660, 700));
+		assertTrue(second.overlaps(659, 700));
+	}
+
+	private boolean reserve(String startTime, String endTime) {
+		return this.index.reserve(OPERATOR_ID, DATE, time(startTime), endTime == null ? null : time(endTime));
+	}
+
+	private List<List<Integer>> ranges() {
+		DaySchedule schedule = this.index.scheduleOf(OPERATOR_ID, DATE);
+		List<List<Integer>> ranges = new ArrayList<>();
+		for (int i = 0; i < schedule.size(); i++) {
+			ranges.add(List.of(schedule.startAt(i), schedule.endAt(i)));
+		}
+		return ranges;
+	}
+
+	private static LocalTime time(String time) {
+		return LocalTime.parse(time);
+	}
+}